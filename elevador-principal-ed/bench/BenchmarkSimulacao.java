@@ -0,0 +1,330 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Micro-benchmarks dos caminhos críticos da simulação: Predio.atualizar em prédios de
+ * vários tamanhos, cada método de despacho (incluindo a atribuição global de até 64
+ * elevadores x 200 andares), Elevador.determinarProximoAndar e as
+ * estruturas Lista/Fila comparadas às coleções do Java, além da gravação e leitura de
+ * snapshots (formato binário, binário com GZIP e serialização Java).
+ *
+ * Cada medição faz um aquecimento (para o JIT compilar o código) e depois várias
+ * rodadas; o resultado é o tempo médio e o melhor tempo por operação.
+ *
+ * Compilar e executar a partir de elevador-principal-ed/:
+ *   javac -d out src/*.java bench/*.java
+ *   java -cp out BenchmarkSimulacao [filtro]
+ * O filtro opcional executa apenas os benchmarks cujo nome contém o texto informado.
+ */
+public class BenchmarkSimulacao {
+    private static final int RODADAS_AQUECIMENTO = 5;
+    private static final int RODADAS_MEDICAO = 10;
+
+    // Acumula resultados para que o JIT não elimine o código medido
+    private static volatile long sumidouro;
+
+    private static String filtro = "";
+
+    public static void main(String[] args) {
+        if (args.length > 0) {
+            filtro = args[0];
+        }
+        System.out.println(String.format(Locale.ROOT, "%-50s %14s %14s", "benchmark", "média ns/op", "melhor ns/op"));
+
+        benchmarkAtualizarPredio(10, 2, 0.5, false);
+        benchmarkAtualizarPredio(50, 8, 3, false);
+        benchmarkAtualizarPredio(200, 32, 12, false);
+        benchmarkAtualizarPredio(200, 32, 12, true);
+        benchmarkAtualizarPredio(200, 128, 48, false);
+        benchmarkAtualizarPredio(200, 128, 48, true);
+
+        benchmarkDespacho(HeuristicaElevador.SEM_HEURISTICA, 50, 8);
+        benchmarkDespacho(HeuristicaElevador.OTIMIZACAO_TEMPO_ESPERA, 50, 8);
+        benchmarkDespacho(HeuristicaElevador.OTIMIZACAO_ENERGIA, 50, 8);
+
+        benchmarkAtribuicaoGlobal(20, 4);
+        benchmarkAtribuicaoGlobal(50, 8);
+        benchmarkAtribuicaoGlobal(100, 32);
+        benchmarkAtribuicaoGlobal(200, 64);
+
+        benchmarkDeterminarProximoAndar(200);
+
+        benchmarkFilas(100_000);
+        benchmarkListas(100_000);
+
+        benchmarkSnapshot(200, 100_000);
+    }
+
+    // Todas as rodadas partem do mesmo estado, restaurado de um snapshot fora da medição, com as
+    // chegadas da rodada já agendadas; sem isso cada rodada herdaria as filas da anterior
+    private static void benchmarkAtualizarPredio(int andares, int elevadores, double pessoasPorMinuto, boolean paralelo) {
+        Simulador simulador = new Simulador(andares, elevadores, 0, 8);
+        simulador.setHeuristicaAtual(HeuristicaElevador.OTIMIZACAO_TEMPO_ESPERA);
+        Random random = new Random(42);
+        // Levar o prédio a um regime com filas e elevadores ocupados
+        simulador.agendarChegadasAleatorias(0, 240, pessoasPorMinuto, random);
+        simulador.executarAte(240);
+
+        int minutosPorRodada = 1000;
+        simulador.agendarChegadasAleatorias(240, 240 + minutosPorRodada, pessoasPorMinuto, random);
+        byte[] estado = gravarSnapshot(simulador, false);
+        Simulador[] atual = new Simulador[1];
+
+        String nome = "Predio.atualizar " + andares + " andares/" + elevadores + " elevadores" + (paralelo ? " paralelo" : "");
+        medir(nome, minutosPorRodada, () -> {
+            atual[0] = carregarSnapshot(estado);
+            atual[0].setAtualizacaoParalela(paralelo);
+        }, () -> {
+            atual[0].executarAte(240 + minutosPorRodada);
+            sumidouro += atual[0].getPessoasTransportadas();
+        });
+    }
+
+    // Cada rodada despacha uma chamada por andar e sentido em cópias novas do mesmo estado,
+    // restauradas de um snapshot fora da medição: repetidas no mesmo prédio, as chamadas
+    // encontrariam os andares já nas paradas dos elevadores e as estimativas já calculadas
+    private static void benchmarkDespacho(HeuristicaElevador heuristica, int andares, int elevadores) {
+        Simulador simulador = new Simulador(andares, elevadores, 0, 8);
+        simulador.setHeuristicaAtual(heuristica);
+        simulador.agendarChegadasAleatorias(0, 120, 2, new Random(7));
+        simulador.executarAte(120);
+        byte[] estado = gravarSnapshot(simulador, false);
+
+        int copias = 1000;
+        int chamadasPorCopia = 2 * andares;
+        Predio[] predios = new Predio[copias];
+        medir("despacho " + heuristica.name(), copias * chamadasPorCopia, () -> {
+            for (int i = 0; i < copias; i++) {
+                predios[i] = carregarSnapshot(estado).getPredio();
+            }
+        }, () -> {
+            for (Predio predio : predios) {
+                for (int i = 0; i < chamadasPorCopia; i++) {
+                    Andar andar = predio.getAndar(i / 2);
+                    boolean subindo = (i & 1) == 0;
+                    switch (heuristica) {
+                        case SEM_HEURISTICA:
+                            predio.chamarElevadorFCFS(andar.getNumero());
+                            break;
+                        case OTIMIZACAO_TEMPO_ESPERA:
+                            predio.chamarElevadorOtimizacaoTempoEspera(andar, subindo, !subindo);
+                            break;
+                        case OTIMIZACAO_ENERGIA:
+                            predio.chamarElevadorOtimizacaoEnergia(andar, subindo, !subindo, 500);
+                            break;
+                    }
+                }
+                sumidouro += predio.getCentral().getElevadores().get(0).getAndaresParaAtender().getTamanho();
+            }
+        });
+    }
+
+    // Pior caso do Modelo 4: todas as chamadas (subir e descer em cada andar) abertas de uma vez.
+    // Cada operação monta a matriz chamadas x elevadores e resolve a atribuição.
+    private static void benchmarkAtribuicaoGlobal(int andares, int elevadores) {
+        Simulador simulador = new Simulador(andares, elevadores, 0, 8);
+        simulador.setHeuristicaAtual(HeuristicaElevador.ATRIBUICAO_GLOBAL);
+        simulador.agendarChegadasAleatorias(0, 120, elevadores / 2.0, new Random(5));
+        simulador.executarAte(120);
+        Predio predio = simulador.getPredio();
+        Lista<Elevador> lista = predio.getCentral().getElevadores();
+        int chamadas = 2 * andares;
+        AtribuicaoHungara atribuicao = new AtribuicaoHungara();
+
+        medir("atribuição global " + elevadores + " elevadores x " + chamadas + " chamadas", 1, () -> {
+            atribuicao.preparar(chamadas, elevadores);
+            for (int i = 0; i < chamadas; i++) {
+                Andar andar = predio.getAndar(i / 2);
+                boolean subindo = (i & 1) == 0;
+                for (int j = 0; j < elevadores; j++) {
+                    atribuicao.definirCusto(i, j, predio.calcularTempoEstimadoChegada(lista.get(j), andar, subindo));
+                }
+            }
+            sumidouro += atribuicao.resolver();
+        });
+    }
+
+    private static void benchmarkDeterminarProximoAndar(int andares) {
+        Elevador elevador = new Elevador(1, 8);
+        Random random = new Random(3);
+        for (int i = 0; i < andares / 2; i++) {
+            elevador.chamarPara(1 + random.nextInt(andares - 1));
+        }
+
+        int chamadasPorRodada = 1_000_000;
+        medir("Elevador.determinarProximoAndar " + andares + " andares", chamadasPorRodada, () -> {
+            for (int i = 0; i < chamadasPorRodada; i++) {
+                elevador.determinarProximoAndar();
+            }
+            sumidouro += elevador.estaSubindo() ? 1 : 0;
+        });
+    }
+
+    private static void benchmarkFilas(int elementos) {
+        Pessoa[] pessoas = criarPessoas(elementos);
+
+        medir("Fila enfileirar/desenfileirar", elementos, () -> {
+            Fila<Pessoa> fila = new Fila<>();
+            for (Pessoa pessoa : pessoas) {
+                fila.enfileirar(pessoa);
+            }
+            long soma = 0;
+            while (!fila.estaVazia()) {
+                soma += fila.desenfileirar().getId();
+            }
+            sumidouro += soma;
+        });
+
+        medir("ArrayDeque offer/poll", elementos, () -> {
+            ArrayDeque<Pessoa> fila = new ArrayDeque<>();
+            for (Pessoa pessoa : pessoas) {
+                fila.offer(pessoa);
+            }
+            long soma = 0;
+            while (!fila.isEmpty()) {
+                soma += fila.poll().getId();
+            }
+            sumidouro += soma;
+        });
+    }
+
+    private static void benchmarkListas(int elementos) {
+        Pessoa[] pessoas = criarPessoas(elementos);
+        Lista<Pessoa> lista = new Lista<>();
+        ArrayList<Pessoa> arrayList = new ArrayList<>();
+        for (Pessoa pessoa : pessoas) {
+            lista.inserirFim(pessoa);
+            arrayList.add(pessoa);
+        }
+
+        medir("Lista percorrer com get(i)", elementos, () -> {
+            long soma = 0;
+            for (int i = 0; i < lista.getTamanho(); i++) {
+                soma += lista.get(i).getAndarDestino();
+            }
+            sumidouro += soma;
+        });
+
+        medir("ArrayList percorrer com get(i)", elementos, () -> {
+            long soma = 0;
+            for (int i = 0; i < arrayList.size(); i++) {
+                soma += arrayList.get(i).getAndarDestino();
+            }
+            sumidouro += soma;
+        });
+    }
+
+    private static void benchmarkSnapshot(int andares, int pessoasAguardando) {
+        Simulador simulador = new Simulador(andares, 8, 0, 8);
+        simulador.adicionarPessoasAleatorias(pessoasAguardando, new Random(11));
+        simulador.executarAte(10);
+
+        for (boolean comprimir : new boolean[] {false, true}) {
+            String formato = comprimir ? "binário+gzip" : "binário";
+            byte[] bytes = gravarSnapshot(simulador, comprimir);
+            imprimirTamanho("snapshot " + formato, bytes.length);
+            medir("snapshot gravar " + formato + " " + pessoasAguardando + " pessoas", 1, () -> {
+                sumidouro += gravarSnapshot(simulador, comprimir).length;
+            });
+            medir("snapshot carregar " + formato + " " + pessoasAguardando + " pessoas", 1, () -> {
+                try {
+                    sumidouro += SnapshotSimulacao.carregar(new ByteArrayInputStream(bytes)).getMinutoSimulado();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+
+        // Referência: o formato antigo, com serialização Java
+        byte[] serializado = serializar(simulador);
+        imprimirTamanho("snapshot ObjectOutputStream", serializado.length);
+        medir("snapshot gravar ObjectOutputStream " + pessoasAguardando + " pessoas", 1, () -> {
+            sumidouro += serializar(simulador).length;
+        });
+        medir("snapshot carregar ObjectInputStream " + pessoasAguardando + " pessoas", 1, () -> {
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serializado))) {
+                sumidouro += ((Simulador) in.readObject()).getMinutoSimulado();
+            } catch (IOException | ClassNotFoundException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private static void imprimirTamanho(String nome, int bytes) {
+        if (!nome.contains(filtro)) return;
+        System.out.println(String.format(Locale.ROOT, "%-50s %14d bytes", nome, bytes));
+    }
+
+    private static byte[] gravarSnapshot(Simulador simulador, boolean comprimir) {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        try {
+            SnapshotSimulacao.gravar(simulador, saida, comprimir);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return saida.toByteArray();
+    }
+
+    private static byte[] serializar(Simulador simulador) {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(saida)) {
+            out.writeObject(simulador);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return saida.toByteArray();
+    }
+
+    private static Simulador carregarSnapshot(byte[] bytes) {
+        try {
+            return SnapshotSimulacao.carregar(new ByteArrayInputStream(bytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Pessoa[] criarPessoas(int quantidade) {
+        Pessoa[] pessoas = new Pessoa[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            pessoas[i] = new Pessoa(i, i % 10, (i + 1) % 10, 0);
+        }
+        return pessoas;
+    }
+
+    private static void medir(String nome, int operacoesPorRodada, Runnable rodada) {
+        medir(nome, operacoesPorRodada, () -> { }, rodada);
+    }
+
+    // preparar roda antes de cada rodada (inclusive no aquecimento) e fica fora do tempo medido
+    private static void medir(String nome, int operacoesPorRodada, Runnable preparar, Runnable rodada) {
+        if (!nome.contains(filtro)) return;
+
+        for (int i = 0; i < RODADAS_AQUECIMENTO; i++) {
+            preparar.run();
+            rodada.run();
+        }
+
+        long total = 0;
+        long melhor = Long.MAX_VALUE;
+        for (int i = 0; i < RODADAS_MEDICAO; i++) {
+            preparar.run();
+            long inicio = System.nanoTime();
+            rodada.run();
+            long duracao = System.nanoTime() - inicio;
+            total += duracao;
+            melhor = Math.min(melhor, duracao);
+        }
+
+        double media = (double) total / RODADAS_MEDICAO / operacoesPorRodada;
+        double melhorPorOperacao = (double) melhor / operacoesPorRodada;
+        System.out.println(String.format(Locale.ROOT, "%-50s %14.1f %14.1f", nome, media, melhorPorOperacao));
+    }
+}
@@ -1,13 +1,19 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
 
 public class Andar implements Serializable {
     private int numero;
-    private Fila pessoasAguardando;
+    // Filas de espera separadas por sentido; os botões do painel acompanham a ocupação de cada uma
+    private Fila<Pessoa> aguardandoSubir;
+    private Fila<Pessoa> aguardandoDescer;
     private PainelElevador painel;
 
     public Andar(int numero) {
         this.numero = numero;
-        this.pessoasAguardando = new Fila();
+        this.aguardandoSubir = new Fila<>();
+        this.aguardandoDescer = new Fila<>();
         this.painel = new PainelElevador();
     }
 
@@ -15,11 +21,91 @@ public class Andar implements Serializable {
         return numero;
     }
 
-    public Fila getPessoasAguardando() {
-        return pessoasAguardando;
+    // Coloca a pessoa na fila do seu sentido e acende o botão correspondente
+    public void adicionarPessoa(Pessoa pessoa) {
+        if (pessoa.getAndarDestino() > numero) {
+            aguardandoSubir.enfileirar(pessoa);
+            painel.pressionarSubir();
+        } else {
+            aguardandoDescer.enfileirar(pessoa);
+            painel.pressionarDescer();
+        }
+    }
+
+    // Retira a primeira pessoa da fila do sentido, ou null se a fila estiver vazia
+    public Pessoa removerPessoa(boolean subindo) {
+        Fila<Pessoa> fila = subindo ? aguardandoSubir : aguardandoDescer;
+        if (fila.estaVazia()) return null;
+        Pessoa pessoa = fila.desenfileirar();
+        atualizarPainel();
+        return pessoa;
+    }
+
+    // Retira quem chegou primeiro entre as duas filas (os ids seguem a ordem de chegada)
+    public Pessoa removerPrimeiraPessoa() {
+        if (aguardandoSubir.estaVazia()) return removerPessoa(false);
+        if (aguardandoDescer.estaVazia()) return removerPessoa(true);
+        return removerPessoa(aguardandoSubir.get(0).getId() < aguardandoDescer.get(0).getId());
+    }
+
+    // Copia as primeiras pessoas aguardando, na ordem de chegada, até encher o vetor
+    public void copiarPessoasAguardando(Pessoa[] destino) {
+        int subir = 0;
+        int descer = 0;
+        for (int i = 0; i < destino.length; i++) {
+            boolean daSubida = descer == aguardandoDescer.getTamanho()
+                               || (subir < aguardandoSubir.getTamanho()
+                                   && aguardandoSubir.get(subir).getId() < aguardandoDescer.get(descer).getId());
+            destino[i] = daSubida ? aguardandoSubir.get(subir++) : aguardandoDescer.get(descer++);
+        }
+    }
+
+    public int getQuantidadeAguardando() {
+        return aguardandoSubir.getTamanho() + aguardandoDescer.getTamanho();
+    }
+
+    public int getQuantidadeAguardando(boolean subindo) {
+        return (subindo ? aguardandoSubir : aguardandoDescer).getTamanho();
+    }
+
+    public boolean temPessoasAguardando() {
+        return !aguardandoSubir.estaVazia() || !aguardandoDescer.estaVazia();
     }
 
     public PainelElevador getPainel() {
         return painel;
     }
+
+    // Botões acesos exatamente para os sentidos com alguém aguardando
+    private void atualizarPainel() {
+        painel.resetar();
+        if (!aguardandoSubir.estaVazia()) painel.pressionarSubir();
+        if (!aguardandoDescer.estaVazia()) painel.pressionarDescer();
+    }
+
+    // Estado no formato de SnapshotSimulacao: botões do painel e fila de espera (na ordem de chegada)
+    public void gravarEstado(DataOutput out) throws IOException {
+        out.writeByte((painel.isBotaoSubirAtivado() ? 1 : 0) | (painel.isBotaoDescerAtivado() ? 2 : 0));
+        Pessoa[] pessoas = new Pessoa[getQuantidadeAguardando()];
+        copiarPessoasAguardando(pessoas);
+        SnapshotSimulacao.escreverInt(out, pessoas.length);
+        for (Pessoa pessoa : pessoas) {
+            pessoa.gravarEstado(out);
+        }
+    }
+
+    public void lerEstado(DataInput in) throws IOException {
+        int botoes = in.readUnsignedByte();
+
+        aguardandoSubir = new Fila<>();
+        aguardandoDescer = new Fila<>();
+        int quantidade = SnapshotSimulacao.lerInt(in);
+        for (int i = 0; i < quantidade; i++) {
+            adicionarPessoa(Pessoa.lerEstado(in));
+        }
+
+        painel.resetar();
+        if ((botoes & 1) != 0) painel.pressionarSubir();
+        if ((botoes & 2) != 0) painel.pressionarDescer();
+    }
 }
@@ -0,0 +1,126 @@
+import java.util.Arrays;
+
+/**
+ * Atribuição de custo mínimo (algoritmo húngaro, versão com potenciais em O(n² m)) para uma
+ * matriz retangular de custos inteiros: cada linha recebe no máximo uma coluna e cada coluna
+ * no máximo uma linha, e são feitas min(linhas, colunas) atribuições. Quando há mais linhas
+ * que colunas o problema é resolvido sobre a transposta. Os vetores de trabalho são
+ * reaproveitados entre chamadas, para uso a cada minuto da simulação sem alocações.
+ */
+public class AtribuicaoHungara {
+    private static final long INFINITO = Long.MAX_VALUE / 4;
+
+    private int linhas;
+    private int colunas;
+    private int[] custos = new int[0];   // linhas x colunas, por linha
+    private int[] colunaDaLinha = new int[0];
+
+    // Vetores do algoritmo, indexados a partir de 1 (a posição 0 é auxiliar)
+    private long[] potencialLinha = new long[0];
+    private long[] potencialColuna = new long[0];
+    private long[] menorFolga = new long[0];
+    private int[] linhaDaColuna = new int[0];
+    private int[] caminho = new int[0];
+    private boolean[] usada = new boolean[0];
+
+    // Prepara uma matriz linhas x colunas; os custos são informados com definirCusto
+    public void preparar(int linhas, int colunas) {
+        this.linhas = linhas;
+        this.colunas = colunas;
+        if (custos.length < linhas * colunas) {
+            custos = new int[linhas * colunas];
+        }
+        if (colunaDaLinha.length < linhas) {
+            colunaDaLinha = new int[linhas];
+        }
+        int maior = Math.max(linhas, colunas) + 1;
+        if (potencialLinha.length < maior) {
+            potencialLinha = new long[maior];
+            potencialColuna = new long[maior];
+            menorFolga = new long[maior];
+            linhaDaColuna = new int[maior];
+            caminho = new int[maior];
+            usada = new boolean[maior];
+        }
+    }
+
+    public void definirCusto(int linha, int coluna, int custo) {
+        custos[linha * colunas + coluna] = custo;
+    }
+
+    // Resolve a atribuição e retorna o custo total; o resultado é lido com getColuna
+    public long resolver() {
+        Arrays.fill(colunaDaLinha, 0, linhas, -1);
+        if (linhas == 0 || colunas == 0) return 0;
+
+        // O algoritmo exige n <= m: com mais linhas que colunas, os papéis se invertem
+        boolean transposta = linhas > colunas;
+        int n = transposta ? colunas : linhas;
+        int m = transposta ? linhas : colunas;
+        Arrays.fill(potencialLinha, 0, n + 1, 0);
+        Arrays.fill(potencialColuna, 0, m + 1, 0);
+        Arrays.fill(linhaDaColuna, 0, m + 1, 0);
+
+        for (int i = 1; i <= n; i++) {
+            // Caminho aumentante a partir da linha i, pelo menor custo reduzido
+            linhaDaColuna[0] = i;
+            int coluna0 = 0;
+            Arrays.fill(menorFolga, 0, m + 1, INFINITO);
+            Arrays.fill(usada, 0, m + 1, false);
+            do {
+                usada[coluna0] = true;
+                int linha0 = linhaDaColuna[coluna0];
+                long delta = INFINITO;
+                int coluna1 = 0;
+                for (int j = 1; j <= m; j++) {
+                    if (usada[j]) continue;
+                    long folga = custo(transposta, linha0, j) - potencialLinha[linha0] - potencialColuna[j];
+                    if (folga < menorFolga[j]) {
+                        menorFolga[j] = folga;
+                        caminho[j] = coluna0;
+                    }
+                    if (menorFolga[j] < delta) {
+                        delta = menorFolga[j];
+                        coluna1 = j;
+                    }
+                }
+                for (int j = 0; j <= m; j++) {
+                    if (usada[j]) {
+                        potencialLinha[linhaDaColuna[j]] += delta;
+                        potencialColuna[j] -= delta;
+                    } else {
+                        menorFolga[j] -= delta;
+                    }
+                }
+                coluna0 = coluna1;
+            } while (linhaDaColuna[coluna0] != 0);
+
+            // Inverter o caminho encontrado
+            do {
+                int coluna1 = caminho[coluna0];
+                linhaDaColuna[coluna0] = linhaDaColuna[coluna1];
+                coluna0 = coluna1;
+            } while (coluna0 != 0);
+        }
+
+        long total = 0;
+        for (int j = 1; j <= m; j++) {
+            int i = linhaDaColuna[j];
+            if (i == 0) continue;
+            int linha = transposta ? j - 1 : i - 1;
+            int coluna = transposta ? i - 1 : j - 1;
+            colunaDaLinha[linha] = coluna;
+            total += custos[linha * colunas + coluna];
+        }
+        return total;
+    }
+
+    // Coluna atribuída à linha, ou -1 se a linha ficou sem atribuição
+    public int getColuna(int linha) {
+        return colunaDaLinha[linha];
+    }
+
+    private long custo(boolean transposta, int i, int j) {
+        return transposta ? custos[(j - 1) * colunas + (i - 1)] : custos[(i - 1) * colunas + (j - 1)];
+    }
+}
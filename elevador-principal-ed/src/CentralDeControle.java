@@ -1,8 +1,18 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 public class CentralDeControle extends EntidadeSimulavel {
-    private Lista elevadores;
+    // Elevadores por tarefa na atualização paralela: abaixo disso dividir custa mais que atualizar
+    private static final int ELEVADORES_POR_TAREFA = 8;
+
+    private Lista<Elevador> elevadores;
+    // Movimento dos elevadores em paralelo. Só é usado sem ouvinte, para que os eventos
+    // continuem saindo de uma única thread e na ordem dos elevadores.
+    private transient boolean atualizacaoParalela;
+    private transient boolean temOuvinte;
 
     public CentralDeControle(int quantidadeElevadores, int capacidadeElevador) {
-        elevadores = new Lista();
+        elevadores = new Lista<>(quantidadeElevadores);
         for (int i = 0; i < quantidadeElevadores; i++) {
             elevadores.inserirFim(new Elevador(i + 1, capacidadeElevador));
         }
@@ -10,15 +20,63 @@ public class CentralDeControle extends EntidadeSimulavel {
 
     @Override
     public void atualizar(int minutoSimulado) {
-        Ponteiro p = elevadores.getInicio();
-        while (p != null) {
-            Elevador e = (Elevador) p.getElemento();
-            e.atualizar(minutoSimulado);
-            p = p.getProximo();
+        int quantidade = elevadores.getTamanho();
+        if (atualizacaoParalela && !temOuvinte && quantidade > ELEVADORES_POR_TAREFA) {
+            // Nesta fase cada elevador só altera o próprio estado (e o dos seus passageiros),
+            // então a ordem entre eles não muda o resultado; embarque e despacho vêm depois,
+            // em sequência, no Predio
+            ForkJoinPool.commonPool().invoke(new AtualizacaoElevadores(elevadores, 0, quantidade, minutoSimulado));
+            return;
+        }
+        for (int i = 0; i < quantidade; i++) {
+            elevadores.get(i).atualizar(minutoSimulado);
+        }
+    }
+
+    public void setAtualizacaoParalela(boolean atualizacaoParalela) {
+        this.atualizacaoParalela = atualizacaoParalela;
+    }
+
+    public boolean isAtualizacaoParalela() {
+        return atualizacaoParalela;
+    }
+
+    public void setOuvinte(OuvinteElevador ouvinte) {
+        temOuvinte = ouvinte != null;
+        for (int i = 0; i < elevadores.getTamanho(); i++) {
+            elevadores.get(i).setOuvinte(ouvinte);
         }
     }
 
-    public Lista getElevadores() {
+    public Lista<Elevador> getElevadores() {
         return elevadores;
     }
+
+    // Atualiza os elevadores [inicio, fim) dividindo o intervalo ao meio até ELEVADORES_POR_TAREFA
+    private static class AtualizacaoElevadores extends RecursiveAction {
+        private final Lista<Elevador> elevadores;
+        private final int inicio;
+        private final int fim;
+        private final int minutoSimulado;
+
+        AtualizacaoElevadores(Lista<Elevador> elevadores, int inicio, int fim, int minutoSimulado) {
+            this.elevadores = elevadores;
+            this.inicio = inicio;
+            this.fim = fim;
+            this.minutoSimulado = minutoSimulado;
+        }
+
+        @Override
+        protected void compute() {
+            if (fim - inicio <= ELEVADORES_POR_TAREFA) {
+                for (int i = inicio; i < fim; i++) {
+                    elevadores.get(i).atualizar(minutoSimulado);
+                }
+                return;
+            }
+            int meio = (inicio + fim) >>> 1;
+            invokeAll(new AtualizacaoElevadores(elevadores, inicio, meio, minutoSimulado),
+                      new AtualizacaoElevadores(elevadores, meio, fim, minutoSimulado));
+        }
+    }
 }
@@ -0,0 +1,148 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Conjunto de andares em que um elevador precisa parar, guardado como um mapa de bits
+ * (um bit por andar). Pertinência, inserção e remoção são O(1); a próxima parada acima
+ * ou abaixo de um andar é encontrada em O(andares/64), sem objetos Integer.
+ */
+public class ConjuntoParadas implements Serializable {
+    private long[] palavras;
+    private int tamanho;
+    private int modificacoes; // Conta as alterações, para quem guarda cálculos feitos sobre o conjunto
+
+    public ConjuntoParadas() {
+        this.palavras = new long[1];
+        this.tamanho = 0;
+    }
+
+    // Retorna true se o andar não estava no conjunto
+    public boolean adicionar(int andar) {
+        int palavra = andar >>> 6;
+        if (palavra >= palavras.length) {
+            palavras = Arrays.copyOf(palavras, Math.max(palavras.length * 2, palavra + 1));
+        }
+        long bit = 1L << andar;
+        if ((palavras[palavra] & bit) != 0) return false;
+        palavras[palavra] |= bit;
+        tamanho++;
+        modificacoes++;
+        return true;
+    }
+
+    // Retorna true se o andar estava no conjunto
+    public boolean remover(int andar) {
+        if (!contem(andar)) return false;
+        palavras[andar >>> 6] &= ~(1L << andar);
+        tamanho--;
+        modificacoes++;
+        return true;
+    }
+
+    public boolean contem(int andar) {
+        int palavra = andar >>> 6;
+        return andar >= 0 && palavra < palavras.length && (palavras[palavra] & (1L << andar)) != 0;
+    }
+
+    // Menor andar do conjunto que seja >= andar, ou -1 se não houver
+    public int proximaAPartirDe(int andar) {
+        if (andar < 0) andar = 0;
+        int palavra = andar >>> 6;
+        if (palavra >= palavras.length) return -1;
+
+        long bits = palavras[palavra] & (-1L << andar);
+        while (bits == 0) {
+            if (++palavra == palavras.length) return -1;
+            bits = palavras[palavra];
+        }
+        return (palavra << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    // Maior andar do conjunto que seja <= andar, ou -1 se não houver
+    public int anteriorAte(int andar) {
+        if (andar < 0) return -1;
+        int palavra = andar >>> 6;
+        if (palavra >= palavras.length) {
+            palavra = palavras.length - 1;
+            andar = (palavra << 6) + 63;
+        }
+
+        long bits = palavras[palavra] & (-1L >>> (63 - (andar & 63)));
+        while (bits == 0) {
+            if (--palavra < 0) return -1;
+            bits = palavras[palavra];
+        }
+        return (palavra << 6) + 63 - Long.numberOfLeadingZeros(bits);
+    }
+
+    // Quantidade de paradas estritamente entre os dois andares (em qualquer ordem)
+    public int contarEntre(int andarA, int andarB) {
+        int de = Math.max(0, Math.min(andarA, andarB) + 1);
+        int ate = Math.min(Math.max(andarA, andarB), palavras.length << 6); // Exclusivo
+        if (de >= ate) return 0;
+
+        int primeira = de >>> 6;
+        int ultima = (ate - 1) >>> 6;
+        long mascaraInicio = -1L << de;
+        long mascaraFim = -1L >>> (63 - ((ate - 1) & 63));
+        if (primeira == ultima) {
+            return Long.bitCount(palavras[primeira] & mascaraInicio & mascaraFim);
+        }
+
+        int total = Long.bitCount(palavras[primeira] & mascaraInicio);
+        for (int i = primeira + 1; i < ultima; i++) {
+            total += Long.bitCount(palavras[i]);
+        }
+        return total + Long.bitCount(palavras[ultima] & mascaraFim);
+    }
+
+    public int menor() {
+        return proximaAPartirDe(0);
+    }
+
+    public int maior() {
+        return anteriorAte(Integer.MAX_VALUE);
+    }
+
+    public boolean estaVazio() {
+        return tamanho == 0;
+    }
+
+    public int getTamanho() {
+        return tamanho;
+    }
+
+    // Muda sempre que o conjunto muda (o valor em si não tem significado)
+    public int getModificacoes() {
+        return modificacoes;
+    }
+
+    public void limpar() {
+        Arrays.fill(palavras, 0L);
+        tamanho = 0;
+        modificacoes++;
+    }
+
+    // Estado no formato de SnapshotSimulacao: quantidade e as diferenças entre andares consecutivos
+    public void gravarEstado(DataOutput out) throws IOException {
+        SnapshotSimulacao.escreverInt(out, tamanho);
+        int anterior = 0;
+        for (int andar = menor(); andar != -1; andar = proximaAPartirDe(andar + 1)) {
+            SnapshotSimulacao.escreverInt(out, andar - anterior);
+            anterior = andar;
+        }
+    }
+
+    public void lerEstado(DataInput in) throws IOException {
+        limpar();
+        int quantidade = SnapshotSimulacao.lerInt(in);
+        int andar = 0;
+        for (int i = 0; i < quantidade; i++) {
+            andar += SnapshotSimulacao.lerInt(in);
+            adicionar(andar);
+        }
+    }
+}
@@ -1,6 +1,7 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.List;
 
 public class Elevador extends EntidadeSimulavel implements Serializable {
     private int id;
@@ -8,10 +9,15 @@ public class Elevador extends EntidadeSimulavel implements Serializable {
     private int andarDestino;
     private boolean emMovimento;
     private boolean subindo;
-    private Lista pessoasDentro;
+    // Passageiros agrupados pelo andar de destino (posição = andar, null se ninguém vai para lá),
+    // cada grupo na ordem de embarque; o desembarque só mexe no grupo do andar atual
+    private Lista<Lista<Pessoa>> passageirosPorDestino;
+    private int ocupacao;
     private int capacidadeMaxima;
-    private List<Integer> andaresParaAtender;
+    private ConjuntoParadas andaresParaAtender;
     private int tempoParado;
+    private int minutoAtual;
+    private transient OuvinteElevador ouvinte; // Nulo quando ninguém está escutando os eventos
     private static final int TEMPO_PARADO_MAXIMO = 3; // Tempo que o elevador fica parado em um andar
     
     // Estatísticas
@@ -19,6 +25,20 @@ public class Elevador extends EntidadeSimulavel implements Serializable {
     private int andaresPercorridos;
     private int tempoTotalViagem;
     private int tempoOcioso;
+    private int minutosEmMovimento; // Base para o tempo de viagem de cada passageiro
+    private Lista<Pessoa> desembarcadas; // Desembarques ainda não contabilizados pelo prédio
+    
+    // Tempo estimado de chegada a cada andar, índice 2 * andar para subir e 2 * andar + 1 para descer.
+    // Cada posição é calculada na primeira consulta e vale enquanto a versão dela for a da tabela;
+    // a versão da tabela avança quando muda o estado de que as estimativas dependem.
+    private transient int[] tabelaChegada;
+    private transient int[] versaoChegada;
+    private transient int versaoTabela;
+    private transient int chaveAndar;
+    private transient boolean chaveSubindo;
+    private transient boolean chaveEmMovimento;
+    private transient int chaveOcupacao;
+    private transient int chaveModificacoes;
 
     public Elevador(int id, int capacidadeMaxima) {
         this.id = id;
@@ -26,9 +46,9 @@ public class Elevador extends EntidadeSimulavel implements Serializable {
         this.andarDestino = 0;
         this.emMovimento = false;
         this.subindo = true;
-        this.pessoasDentro = new Lista();
+        this.passageirosPorDestino = new Lista<>();
         this.capacidadeMaxima = capacidadeMaxima;
-        this.andaresParaAtender = new ArrayList<>();
+        this.andaresParaAtender = new ConjuntoParadas();
         this.tempoParado = 0;
         
         // Inicializar estatísticas
@@ -36,37 +56,36 @@ public class Elevador extends EntidadeSimulavel implements Serializable {
         this.andaresPercorridos = 0;
         this.tempoTotalViagem = 0;
         this.tempoOcioso = 0;
+        this.desembarcadas = new Lista<>(capacidadeMaxima);
     }
 
     @Override
     public void atualizar(int minutoSimulado) {
+        minutoAtual = minutoSimulado;
         if (emMovimento) {
             // Mover o elevador
             if (andarAtual < andarDestino) {
                 andarAtual++;
                 subindo = true;
                 andaresPercorridos++;
+                if (ouvinte != null) ouvinte.elevadorMoveu(this, minutoSimulado);
             } else if (andarAtual > andarDestino) {
                 andarAtual--;
                 subindo = false;
                 andaresPercorridos++;
+                if (ouvinte != null) ouvinte.elevadorMoveu(this, minutoSimulado);
             } else {
-                emMovimento = false;
-                tempoParado = 0;
                 // Chegou ao destino, desembarcar pessoas
-                desembarcarPessoas();
+                parar();
             }
             
             // Verificar se há paradas pelo meio
-            if (andaresParaAtender.contains(andarAtual)) {
-                emMovimento = false;
-                tempoParado = 0;
-                andaresParaAtender.remove(Integer.valueOf(andarAtual));
-                desembarcarPessoas();
+            if (andaresParaAtender.remover(andarAtual)) {
+                parar();
             }
             
-            // Atualizar tempo de viagem para pessoas dentro do elevador
-            atualizarTempoViagem();
+            // Conta para o tempo de viagem de quem continua dentro do elevador
+            minutosEmMovimento++;
         } else {
             // Elevador está parado em um andar
             tempoParado++;
@@ -74,7 +93,7 @@ public class Elevador extends EntidadeSimulavel implements Serializable {
             // Se ficou parado por tempo suficiente, pode continuar a viagem
             if (tempoParado >= TEMPO_PARADO_MAXIMO) {
                 // Se ainda tiver andares para atender, continue a viagem
-                if (!andaresParaAtender.isEmpty()) {
+                if (!andaresParaAtender.estaVazio()) {
                     // Determinar próximo andar a atender baseado na direção atual
                     determinarProximoAndar();
                 } else {
@@ -83,50 +102,48 @@ public class Elevador extends EntidadeSimulavel implements Serializable {
                 }
             }
         }
-        
-        System.out.println("Elevador " + id + " no andar " + andarAtual + 
-                          (emMovimento ? (subindo ? " subindo" : " descendo") : " parado") + 
-                          " - Minuto " + minutoSimulado);
     }
     
-    private void determinarProximoAndar() {
-        if (andaresParaAtender.isEmpty()) return;
+    // Quantas atualizações seguidas este elevador passará apenas contando tempo parado
+    // (sem se mover nem partir), supondo que ninguém o chame nesse intervalo.
+    public int minutosOciosos() {
+        if (emMovimento) return 0;
+        if (andaresParaAtender.estaVazio()) return Integer.MAX_VALUE;
+        // Com paradas pendentes, parte na atualização em que tempoParado alcança o máximo
+        return Math.max(0, TEMPO_PARADO_MAXIMO - tempoParado - 1);
+    }
+    
+    // Equivale a 'minutos' chamadas de atualizar enquanto minutosOciosos() não se esgota
+    public void avancarOcioso(int ultimoMinuto, int minutos) {
+        minutoAtual = ultimoMinuto;
+        if (andaresParaAtender.estaVazio()) {
+            // Conta como ocioso cada atualização em que tempoParado já atingiu o máximo
+            int primeiraOciosa = Math.max(1, TEMPO_PARADO_MAXIMO - tempoParado);
+            if (minutos >= primeiraOciosa) {
+                tempoOcioso += minutos - primeiraOciosa + 1;
+            }
+        }
+        tempoParado += minutos;
+    }
+    
+    private void parar() {
+        boolean estavaEmMovimento = emMovimento;
+        emMovimento = false;
+        tempoParado = 0;
+        if (estavaEmMovimento && ouvinte != null) ouvinte.elevadorParou(this, minutoAtual);
+        desembarcarPessoas();
+    }
+    
+    void determinarProximoAndar() {
+        if (andaresParaAtender.estaVazio()) return;
         
-        // Implementação da heurística 
-        int proximoAndar = -1;
+        // Implementação da heurística: próxima parada no sentido atual
+        int proximoAndar = proximaParada();
         
-        if (subindo) {
-            // Procurar o próximo andar acima
-            int menorDistanciaAcima = Integer.MAX_VALUE;
-            for (int andar : andaresParaAtender) {
-                if (andar > andarAtual && andar - andarAtual < menorDistanciaAcima) {
-                    menorDistanciaAcima = andar - andarAtual;
-                    proximoAndar = andar;
-                }
-            }
-            
-            // Se não encontrou nenhum andar acima, inverte a direção
-            if (proximoAndar == -1) {
-                subindo = false;
-                determinarProximoAndar();
-                return;
-            }
-        } else {
-            // Procurar o próximo andar abaixo
-            int menorDistanciaAbaixo = Integer.MAX_VALUE;
-            for (int andar : andaresParaAtender) {
-                if (andar < andarAtual && andarAtual - andar < menorDistanciaAbaixo) {
-                    menorDistanciaAbaixo = andarAtual - andar;
-                    proximoAndar = andar;
-                }
-            }
-            
-            // Se não encontrou nenhum andar abaixo, inverte a direção
-            if (proximoAndar == -1) {
-                subindo = true;
-                determinarProximoAndar();
-                return;
-            }
+        // Se não encontrou nenhum andar nesse sentido, inverte a direção
+        if (proximoAndar == -1) {
+            subindo = !subindo;
+            proximoAndar = proximaParada();
         }
         
         // Definir o próximo destino
@@ -136,9 +153,13 @@ public class Elevador extends EntidadeSimulavel implements Serializable {
         }
     }
 
+    private int proximaParada() {
+        return subindo ? andaresParaAtender.proximaAPartirDe(andarAtual + 1)
+                       : andaresParaAtender.anteriorAte(andarAtual - 1);
+    }
+
     public void chamarPara(int andar) {
-        if (andarAtual != andar && !andaresParaAtender.contains(andar)) {
-            andaresParaAtender.add(andar);
+        if (andarAtual != andar && andaresParaAtender.adicionar(andar)) {
             
             // Se o elevador estiver parado, definir o destino imediatamente
             if (!emMovimento && tempoParado >= TEMPO_PARADO_MAXIMO) {
@@ -148,15 +169,13 @@ public class Elevador extends EntidadeSimulavel implements Serializable {
     }
 
     public void embarcarPessoa(Pessoa pessoa) {
-        if (pessoasDentro.getTamanho() < capacidadeMaxima) {
-            pessoasDentro.inserirFim(pessoa);
-            pessoa.entrarElevador();
-            pessoa.setTempoEspera(pessoa.getTempoEspera()); // Registrar tempo de espera
+        if (ocupacao < capacidadeMaxima) {
+            adicionarPassageiro(pessoa);
+            pessoa.entrarElevador(minutoAtual, minutosEmMovimento);
+            if (ouvinte != null) ouvinte.pessoaEmbarcou(this, pessoa, minutoAtual);
             
             // Adicionar o destino da pessoa aos andares para atender
-            if (!andaresParaAtender.contains(pessoa.getAndarDestino())) {
-                andaresParaAtender.add(pessoa.getAndarDestino());
-            }
+            andaresParaAtender.adicionar(pessoa.getAndarDestino());
             
             // Se o elevador estiver parado, definir o destino imediatamente
             if (!emMovimento && tempoParado >= TEMPO_PARADO_MAXIMO) {
@@ -166,39 +185,104 @@ public class Elevador extends EntidadeSimulavel implements Serializable {
     }
 
     private void desembarcarPessoas() {
-        Ponteiro p = pessoasDentro.getInicio();
-        Ponteiro anterior = null;
+        if (andarAtual >= passageirosPorDestino.getTamanho()) return;
+        Lista<Pessoa> saindo = passageirosPorDestino.get(andarAtual);
+        if (saindo == null) return;
         
-        while (p != null) {
-            Pessoa pessoa = (Pessoa) p.getElemento();
+        // Na ordem de embarque, retirando sempre do início do grupo
+        while (!saindo.estaVazia()) {
+            Pessoa pessoa = saindo.removerInicio();
+            ocupacao--;
             
-            if (pessoa.getAndarDestino() == andarAtual) {
-                // Remover a pessoa da lista
-                if (anterior == null) {
-                    pessoasDentro.removerInicio();
-                    p = pessoasDentro.getInicio();
-                } else {
-                    anterior.setProximo(p.getProximo());
-                    p = p.getProximo();
-                }
-                
-                pessoa.sairElevador();
-                pessoasTransportadas++;
-                tempoTotalViagem += pessoa.getTempoViagem();
-            } else {
-                anterior = p;
-                p = p.getProximo();
+            pessoa.sairElevador(minutosEmMovimento);
+            if (ouvinte != null) ouvinte.pessoaDesembarcou(this, pessoa, minutoAtual);
+            pessoasTransportadas++;
+            tempoTotalViagem += pessoa.getTempoViagem();
+            desembarcadas.inserirFim(pessoa);
+        }
+    }
+    
+    private void adicionarPassageiro(Pessoa pessoa) {
+        int destino = pessoa.getAndarDestino();
+        while (passageirosPorDestino.getTamanho() <= destino) {
+            passageirosPorDestino.inserirFim(null);
+        }
+        Lista<Pessoa> grupo = passageirosPorDestino.get(destino);
+        if (grupo == null) {
+            grupo = new Lista<>(Math.min(capacidadeMaxima, 8));
+            passageirosPorDestino.set(destino, grupo);
+        }
+        grupo.inserirFim(pessoa);
+        ocupacao++;
+    }
+    
+    // Copia os primeiros passageiros (por andar de destino, e no mesmo andar na ordem de embarque)
+    // até encher o vetor, que não pode ser maior que a ocupação
+    public void copiarPassageiros(Pessoa[] destino) {
+        int copiados = 0;
+        for (int andar = 0; copiados < destino.length; andar++) {
+            Lista<Pessoa> grupo = passageirosPorDestino.get(andar);
+            if (grupo == null) continue;
+            for (int i = 0; i < grupo.getTamanho() && copiados < destino.length; i++) {
+                destino[copiados++] = grupo.get(i);
             }
         }
     }
+
+    // Usado pelo despacho: estima em quanto tempo o elevador chega ao andar para uma chamada no sentido
+    // informado, contando a distância, as paradas no caminho, a volta quando o andar ficou para trás,
+    // a ocupação e uma penalidade quando o elevador está no sentido oposto ao da chamada
+    public int getTempoEstimadoChegada(int andar, boolean subindo, int quantidadeAndares) {
+        if (tabelaChegada == null || tabelaChegada.length != 2 * quantidadeAndares) {
+            tabelaChegada = new int[2 * quantidadeAndares];
+            versaoChegada = new int[2 * quantidadeAndares];
+            versaoTabela = 0;
+        }
+        if (versaoTabela == 0 || chaveAndar != andarAtual || chaveSubindo != this.subindo
+                || chaveEmMovimento != emMovimento || chaveOcupacao != ocupacao
+                || chaveModificacoes != andaresParaAtender.getModificacoes()) {
+            versaoTabela++;
+            chaveAndar = andarAtual;
+            chaveSubindo = this.subindo;
+            chaveEmMovimento = emMovimento;
+            chaveOcupacao = ocupacao;
+            chaveModificacoes = andaresParaAtender.getModificacoes();
+        }
+        
+        int indice = 2 * andar + (subindo ? 0 : 1);
+        if (versaoChegada[indice] != versaoTabela) {
+            tabelaChegada[indice] = calcularTempoEstimadoChegada(andar, subindo);
+            versaoChegada[indice] = versaoTabela;
+        }
+        return tabelaChegada[indice];
+    }
     
-    private void atualizarTempoViagem() {
-        Ponteiro p = pessoasDentro.getInicio();
-        while (p != null) {
-            Pessoa pessoa = (Pessoa) p.getElemento();
-            pessoa.incrementarTempoViagem();
-            p = p.getProximo();
+    private int calcularTempoEstimadoChegada(int andar, boolean subindoChamada) {
+        int tempoBase = Math.abs(andarAtual - andar);
+        
+        // Se o elevador estiver em movimento, considerar suas paradas intermediárias
+        if (emMovimento) {
+            // Adicionar tempo para cada parada intermediária
+            tempoBase += 2 * andaresParaAtender.contarEntre(andarAtual, andar); // Tempo para parar e embarcar/desembarcar
+            
+            // Se o elevador estiver indo na direção oposta, adicionar tempo para inverter
+            if ((subindo && andar < andarAtual) || (!subindo && andar > andarAtual)) {
+                // Adicionar tempo para chegar ao extremo e voltar
+                int extremo = andaresParaAtender.estaVazio() ? andarAtual :
+                              subindo ? andaresParaAtender.maior() : andaresParaAtender.menor();
+                tempoBase += 2 * Math.abs(extremo - andarAtual);
+            }
+        }
+        
+        // Considerar a ocupação do elevador (elevadores mais cheios demoram mais)
+        tempoBase += ocupacao;
+        
+        // Considerar a direção desejada
+        if (subindoChamada != subindo) {
+            tempoBase += 5; // Penalidade por estar na direção oposta
         }
+        
+        return tempoBase;
     }
 
     public int getId() {
@@ -217,19 +301,29 @@ public class Elevador extends EntidadeSimulavel implements Serializable {
         return subindo;
     }
 
-    public Lista getPessoasDentro() {
-        return pessoasDentro;
+    public int getOcupacao() {
+        return ocupacao;
+    }
+
+    // Quantos passageiros descem no andar
+    public int getPassageirosPara(int andar) {
+        Lista<Pessoa> grupo = andar < passageirosPorDestino.getTamanho() ? passageirosPorDestino.get(andar) : null;
+        return grupo == null ? 0 : grupo.getTamanho();
     }
 
     public boolean temEspacoDisponivel() {
-        return pessoasDentro.getTamanho() < capacidadeMaxima;
+        return ocupacao < capacidadeMaxima;
+    }
+
+    public void setOuvinte(OuvinteElevador ouvinte) {
+        this.ouvinte = ouvinte;
     }
 
     public int getCapacidadeMaxima() {
         return capacidadeMaxima;
     }
     
-    public List<Integer> getAndaresParaAtender() {
+    public ConjuntoParadas getAndaresParaAtender() {
         return andaresParaAtender;
     }
     
@@ -250,10 +344,82 @@ public class Elevador extends EntidadeSimulavel implements Serializable {
         return pessoasTransportadas > 0 ? (double) tempoTotalViagem / pessoasTransportadas : 0;
     }
     
+    public Lista<Pessoa> getDesembarcadas() {
+        return desembarcadas;
+    }
+    
+    public int getMinutosEmMovimento() {
+        return minutosEmMovimento;
+    }
+    
     public int getTempoOcioso() {
         return tempoOcioso;
     }
     
+    // Estado no formato de SnapshotSimulacao
+    public void gravarEstado(DataOutput out) throws IOException {
+        SnapshotSimulacao.escreverInt(out, id);
+        SnapshotSimulacao.escreverInt(out, capacidadeMaxima);
+        SnapshotSimulacao.escreverInt(out, andarAtual);
+        SnapshotSimulacao.escreverInt(out, andarDestino);
+        out.writeByte((emMovimento ? 1 : 0) | (subindo ? 2 : 0));
+        SnapshotSimulacao.escreverInt(out, tempoParado);
+        SnapshotSimulacao.escreverInt(out, minutoAtual);
+        SnapshotSimulacao.escreverInt(out, pessoasTransportadas);
+        SnapshotSimulacao.escreverInt(out, andaresPercorridos);
+        SnapshotSimulacao.escreverInt(out, tempoTotalViagem);
+        SnapshotSimulacao.escreverInt(out, tempoOcioso);
+        SnapshotSimulacao.escreverInt(out, minutosEmMovimento);
+        andaresParaAtender.gravarEstado(out);
+        Pessoa[] passageiros = new Pessoa[ocupacao];
+        copiarPassageiros(passageiros);
+        SnapshotSimulacao.escreverInt(out, passageiros.length);
+        for (Pessoa pessoa : passageiros) {
+            pessoa.gravarEstado(out);
+        }
+        gravarPessoas(out, desembarcadas);
+    }
+    
+    public void lerEstado(DataInput in) throws IOException {
+        id = SnapshotSimulacao.lerInt(in);
+        capacidadeMaxima = SnapshotSimulacao.lerInt(in);
+        andarAtual = SnapshotSimulacao.lerInt(in);
+        andarDestino = SnapshotSimulacao.lerInt(in);
+        int estado = in.readUnsignedByte();
+        emMovimento = (estado & 1) != 0;
+        subindo = (estado & 2) != 0;
+        tempoParado = SnapshotSimulacao.lerInt(in);
+        minutoAtual = SnapshotSimulacao.lerInt(in);
+        pessoasTransportadas = SnapshotSimulacao.lerInt(in);
+        andaresPercorridos = SnapshotSimulacao.lerInt(in);
+        tempoTotalViagem = SnapshotSimulacao.lerInt(in);
+        tempoOcioso = SnapshotSimulacao.lerInt(in);
+        minutosEmMovimento = SnapshotSimulacao.lerInt(in);
+        andaresParaAtender.lerEstado(in);
+        passageirosPorDestino.limpar();
+        ocupacao = 0;
+        int quantidade = SnapshotSimulacao.lerInt(in);
+        for (int i = 0; i < quantidade; i++) {
+            adicionarPassageiro(Pessoa.lerEstado(in));
+        }
+        lerPessoas(in, desembarcadas);
+    }
+    
+    private static void gravarPessoas(DataOutput out, Lista<Pessoa> pessoas) throws IOException {
+        SnapshotSimulacao.escreverInt(out, pessoas.getTamanho());
+        for (int i = 0; i < pessoas.getTamanho(); i++) {
+            pessoas.get(i).gravarEstado(out);
+        }
+    }
+    
+    private static void lerPessoas(DataInput in, Lista<Pessoa> pessoas) throws IOException {
+        pessoas.limpar();
+        int quantidade = SnapshotSimulacao.lerInt(in);
+        for (int i = 0; i < quantidade; i++) {
+            pessoas.inserirFim(Pessoa.lerEstado(in));
+        }
+    }
+    
     public void resetarEstatisticas() {
         pessoasTransportadas = 0;
         andaresPercorridos = 0;
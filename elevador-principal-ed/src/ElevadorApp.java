@@ -1,15 +1,16 @@
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.awt.image.BufferedImage;
 import java.io.File;
+import java.io.IOException;
 import java.util.Random;
-import java.util.List;
 import javax.swing.border.TitledBorder;
 import java.text.DecimalFormat;
 
 public class ElevadorApp {
     private JFrame frame;
-    private JPanel buildingPanel;
+    private BuildingPanel buildingPanel;
     private JPanel controlPanel;
     private JPanel statsPanel;
     private Simulador simulador;
@@ -21,6 +22,9 @@ public class ElevadorApp {
     private Random random = new Random();
     private DecimalFormat df = new DecimalFormat("#.##");
     private HeuristicaElevador heuristicaAtual = HeuristicaElevador.SEM_HEURISTICA;
+    private LeitorTrafego trafegoReproduzido;
+    private double tempoAtualizacaoMs; // Média móvel do tempo gasto no EDT por atualização das estatísticas
+    private EstadoVisual ultimoEstadoExibido;
 
     public ElevadorApp() {
         // Inicializar o simulador
@@ -105,8 +109,8 @@ public class ElevadorApp {
         panel.add(capacidadeSpinner);
 
         // Configuração da velocidade de simulação
-        panel.add(new JLabel("Velocidade (ms):"));
-        JSpinner velocidadeSpinner = new JSpinner(new SpinnerNumberModel(velocidadeSimulacao, 10, 10000, 10));
+        panel.add(new JLabel("Velocidade (ms, 0 = máxima):"));
+        JSpinner velocidadeSpinner = new JSpinner(new SpinnerNumberModel(velocidadeSimulacao, Simulador.VELOCIDADE_MAXIMA, 10000, 10));
         velocidadeSpinner.addChangeListener(e -> {
             velocidadeSimulacao = (int) velocidadeSpinner.getValue();
             if (simulador != null) {
@@ -122,7 +126,9 @@ public class ElevadorApp {
         heuristicaComboBox.addActionListener(e -> {
             heuristicaAtual = (HeuristicaElevador) heuristicaComboBox.getSelectedItem();
             if (simulador != null) {
-                simulador.setHeuristicaAtual(heuristicaAtual);
+                Simulador sim = simulador;
+                HeuristicaElevador heuristica = heuristicaAtual;
+                sim.enviarComando(() -> sim.setHeuristicaAtual(heuristica));
             }
         });
         panel.add(heuristicaComboBox);
@@ -167,7 +173,10 @@ public class ElevadorApp {
         JLabel tempoMedioEsperaLabel = new JLabel("Tempo médio de espera: 0.00 min");
         JLabel tempoMedioViagemLabel = new JLabel("Tempo médio de viagem: 0.00 min");
         JLabel tempoMedioTotalLabel = new JLabel("Tempo médio total: 0.00 min");
+        JLabel percentisEsperaLabel = new JLabel("Espera p50/p95/p99: 0 / 0 / 0");
         JLabel horarioPicoLabel = new JLabel("Horário de pico: Não");
+        JLabel tempoAtualizacaoLabel = new JLabel("Atualização das estatísticas: 0.00 ms");
+        JLabel passosLabel = new JLabel("Minutos por segundo: 0.00 (atrasos: 0)");
         
         generalStatsPanel.add(minutoLabel);
         generalStatsPanel.add(Box.createVerticalStrut(5));
@@ -183,7 +192,13 @@ public class ElevadorApp {
         generalStatsPanel.add(Box.createVerticalStrut(5));
         generalStatsPanel.add(tempoMedioTotalLabel);
         generalStatsPanel.add(Box.createVerticalStrut(5));
+        generalStatsPanel.add(percentisEsperaLabel);
+        generalStatsPanel.add(Box.createVerticalStrut(5));
         generalStatsPanel.add(horarioPicoLabel);
+        generalStatsPanel.add(Box.createVerticalStrut(5));
+        generalStatsPanel.add(tempoAtualizacaoLabel);
+        generalStatsPanel.add(Box.createVerticalStrut(5));
+        generalStatsPanel.add(passosLabel);
         
         panel.add(generalStatsPanel);
         panel.add(Box.createVerticalStrut(10));
@@ -222,7 +237,12 @@ public class ElevadorApp {
             "- Minimiza deslocamentos desnecessários\n" +
             "- Considera horários de pico e baixo movimento\n" +
             "- Prioriza elevadores já em movimento na direção correta\n" +
-            "- Agrupa chamadas para reduzir viagens"
+            "- Agrupa chamadas para reduzir viagens\n\n" +
+            
+            "Modelo 4: Atribuição global das chamadas\n" +
+            "- Resolve todas as chamadas em aberto de uma vez a cada minuto\n" +
+            "- Minimiza a soma dos tempos estimados de chegada\n" +
+            "- Cada elevador recebe no máximo uma chamada nova por minuto"
         );
         
         JScrollPane heuristicsScroll = new JScrollPane(heuristicsText);
@@ -231,67 +251,50 @@ public class ElevadorApp {
         
         panel.add(heuristicsPanel);
         
-        // Timer para atualizar as estatísticas
+        // Timer para atualizar as estatísticas (lê apenas o último estado publicado pela simulação)
+        Lista<ElevatorStatsView> elevatorViews = new Lista<>();
         Timer statsTimer = new Timer(500, e -> {
-            // Atualizar estatísticas gerais
-            minutoLabel.setText("Minuto simulado: " + simulador.getMinutoSimulado());
-            heuristicaLabel.setText("Heurística: " + simulador.getHeuristicaAtual().toString());
-            pessoasGeradasLabel.setText("Pessoas geradas: " + simulador.getPessoasGeradas());
-            pessoasTransportadasLabel.setText("Pessoas transportadas: " + simulador.getPessoasTransportadas());
-            tempoMedioEsperaLabel.setText("Tempo médio de espera: " + df.format(simulador.getTempoMedioEspera()) + " seg");
-            tempoMedioViagemLabel.setText("Tempo médio de viagem: " + df.format(simulador.getTempoMedioViagem()) + " seg");
-            tempoMedioTotalLabel.setText("Tempo médio total: " + df.format(simulador.getTempoMedioTotal()) + " seg");
-            horarioPicoLabel.setText("Horário de pico: " + (simulador.getPredio().isHorarioPico() ? "Sim" : "Não"));
+            // A taxa do laço muda mesmo sem estado novo (por exemplo, ao pausar)
+            passosLabel.setText("Minutos por segundo: " + df.format(simulador.getPassosPorSegundo()) +
+                                " (atrasos: " + simulador.getPassosAtrasados() + ")");
+            EstadoVisual estado = simulador.getEstadoVisual();
+            if (estado == ultimoEstadoExibido) return; // Nada mudou (por exemplo, simulação pausada)
+            ultimoEstadoExibido = estado;
+            long inicio = System.nanoTime();
             
-            // Atualizar estatísticas dos elevadores
-            elevatorsStatsPanel.removeAll();
+            // Atualizar estatísticas gerais
+            minutoLabel.setText("Minuto simulado: " + estado.getMinuto());
+            heuristicaLabel.setText("Heurística: " + estado.getHeuristica().toString());
+            pessoasGeradasLabel.setText("Pessoas geradas: " + estado.getPessoasGeradas());
+            pessoasTransportadasLabel.setText("Pessoas transportadas: " + estado.getPessoasTransportadas());
+            tempoMedioEsperaLabel.setText("Tempo médio de espera: " + df.format(estado.getTempoMedioEspera()) + " seg");
+            tempoMedioViagemLabel.setText("Tempo médio de viagem: " + df.format(estado.getTempoMedioViagem()) + " seg");
+            tempoMedioTotalLabel.setText("Tempo médio total: " + df.format(estado.getTempoMedioTotal()) + " seg");
+            percentisEsperaLabel.setText("Espera p50/p95/p99: " + estado.getEsperaP50() + " / " +
+                                         estado.getEsperaP95() + " / " + estado.getEsperaP99());
+            horarioPicoLabel.setText("Horário de pico: " + (estado.isHorarioPico() ? "Sim" : "Não"));
             
-            Lista elevadores = simulador.getPredio().getCentral().getElevadores();
-            Ponteiro p = elevadores.getInicio();
-            while (p != null) {
-                Elevador elevador = (Elevador) p.getElemento();
-                
-                JPanel elevadorPanel = new JPanel();
-                elevadorPanel.setLayout(new BoxLayout(elevadorPanel, BoxLayout.Y_AXIS));
-                elevadorPanel.setBorder(BorderFactory.createTitledBorder("Elevador " + elevador.getId()));
-                
-                JLabel posicaoLabel = new JLabel("Posição: Andar " + elevador.getAndarAtual());
-                JLabel estadoLabel = new JLabel("Estado: " + (elevador.estaEmMovimento() ? 
-                                              (elevador.estaSubindo() ? "Subindo" : "Descendo") : "Parado"));
-                JLabel ocupacaoLabel = new JLabel("Ocupação: " + elevador.getPessoasDentro().getTamanho() + 
-                                               "/" + elevador.getCapacidadeMaxima());
-                
-                // Destinos pendentes
-                StringBuilder destinosSb = new StringBuilder("Destinos: ");
-                List<Integer> destinos = elevador.getAndaresParaAtender();
-                if (destinos.isEmpty()) {
-                    destinosSb.append("Nenhum");
-                } else {
-                    for (int i = 0; i < Math.min(10, destinos.size()); i++) {
-                        destinosSb.append(destinos.get(i));
-                        if (i < Math.min(10, destinos.size()) - 1) {
-                            destinosSb.append(", ");
-                        }
-                    }
-                    if (destinos.size() > 10) {
-                        destinosSb.append("... (+" + (destinos.size() - 10) + " mais)");
-                    }
+            // Atualizar estatísticas dos elevadores: os painéis só são recriados quando muda a
+            // quantidade de elevadores; no resto do tempo apenas os textos alterados mudam
+            if (elevatorViews.getTamanho() != estado.getQuantidadeElevadores()) {
+                elevatorsStatsPanel.removeAll();
+                elevatorViews.limpar();
+                for (int k = 0; k < estado.getQuantidadeElevadores(); k++) {
+                    ElevatorStatsView view = new ElevatorStatsView();
+                    elevatorViews.inserirFim(view);
+                    elevatorsStatsPanel.add(view);
+                    elevatorsStatsPanel.add(Box.createVerticalStrut(5));
                 }
-                JLabel destinosLabel = new JLabel(destinosSb.toString());
-                
-                elevadorPanel.add(posicaoLabel);
-                elevadorPanel.add(estadoLabel);
-                elevadorPanel.add(ocupacaoLabel);
-                elevadorPanel.add(destinosLabel);
-                
-                elevatorsStatsPanel.add(elevadorPanel);
-                elevatorsStatsPanel.add(Box.createVerticalStrut(5));
-                
-                p = p.getProximo();
+                elevatorsStatsPanel.revalidate();
+                elevatorsStatsPanel.repaint();
+            }
+            for (int k = 0; k < estado.getQuantidadeElevadores(); k++) {
+                elevatorViews.get(k).atualizar(estado.getElevador(k));
             }
             
-            elevatorsStatsPanel.revalidate();
-            elevatorsStatsPanel.repaint();
+            double duracaoMs = (System.nanoTime() - inicio) / 1_000_000.0;
+            tempoAtualizacaoMs = tempoAtualizacaoMs == 0 ? duracaoMs : tempoAtualizacaoMs * 0.9 + duracaoMs * 0.1;
+            tempoAtualizacaoLabel.setText("Atualização das estatísticas: " + df.format(tempoAtualizacaoMs) + " ms");
         });
         statsTimer.start();
         
@@ -331,7 +334,8 @@ public class ElevadorApp {
             JFileChooser fileChooser = new JFileChooser();
             if (fileChooser.showSaveDialog(frame) == JFileChooser.APPROVE_OPTION) {
                 File file = fileChooser.getSelectedFile();
-                simulador.gravar(file.getAbsolutePath());
+                Simulador sim = simulador;
+                sim.enviarComando(() -> sim.gravar(file.getAbsolutePath()));
             }
         });
         botoesPanel.add(salvarBtn);
@@ -342,7 +346,10 @@ public class ElevadorApp {
             JFileChooser fileChooser = new JFileChooser();
             if (fileChooser.showOpenDialog(frame) == JFileChooser.APPROVE_OPTION) {
                 File file = fileChooser.getSelectedFile();
-                simulador = Simulador.carregar(file.getAbsolutePath());
+                Simulador carregado = Simulador.carregar(file.getAbsolutePath());
+                if (carregado == null) return;
+                simulador.encerrar();
+                simulador = carregado;
                 buildingPanel = new BuildingPanel(simulador);
                 
                 // Atualizar o painel do prédio
@@ -355,6 +362,53 @@ public class ElevadorApp {
         });
         botoesPanel.add(carregarBtn);
 
+        // Botão Gravar Tráfego: grava as chegadas desta execução para reproduzi-las depois
+        JButton gravarTrafegoBtn = new JButton("Gravar Tráfego");
+        gravarTrafegoBtn.addActionListener(e -> {
+            Simulador sim = simulador;
+            if (gravarTrafegoBtn.getText().equals("Parar Gravação")) {
+                sim.enviarComando(sim::encerrarGravacaoTrafego);
+                gravarTrafegoBtn.setText("Gravar Tráfego");
+                return;
+            }
+            JFileChooser fileChooser = new JFileChooser();
+            if (fileChooser.showSaveDialog(frame) == JFileChooser.APPROVE_OPTION) {
+                String arquivo = fileChooser.getSelectedFile().getAbsolutePath();
+                sim.enviarComando(() -> sim.iniciarGravacaoTrafego(arquivo));
+                gravarTrafegoBtn.setText("Parar Gravação");
+            }
+        });
+        botoesPanel.add(gravarTrafegoBtn);
+
+        // Botão Reproduzir Tráfego: as chegadas passam a vir de um rastro gravado
+        JButton reproduzirTrafegoBtn = new JButton("Reproduzir Tráfego");
+        reproduzirTrafegoBtn.addActionListener(e -> {
+            JFileChooser fileChooser = new JFileChooser();
+            if (fileChooser.showOpenDialog(frame) == JFileChooser.APPROVE_OPTION) {
+                try {
+                    Simulador sim = simulador;
+                    LeitorTrafego leitor = new LeitorTrafego(fileChooser.getSelectedFile().getAbsolutePath(),
+                                                             sim.getPredio().getQuantidadeAndares());
+                    LeitorTrafego anterior = trafegoReproduzido;
+                    sim.enviarComando(() -> {
+                        sim.setFonteTrafego(leitor);
+                        if (anterior != null) {
+                            try {
+                                anterior.close();
+                            } catch (IOException ex) {
+                                ex.printStackTrace();
+                            }
+                        }
+                    });
+                    trafegoReproduzido = leitor;
+                } catch (IOException ex) {
+                    JOptionPane.showMessageDialog(frame, "Não foi possível abrir o rastro: " + ex.getMessage(),
+                                                  "Erro", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        });
+        botoesPanel.add(reproduzirTrafegoBtn);
+
         panel.add(botoesPanel, BorderLayout.NORTH);
 
         // Painel para adicionar pessoas aleatoriamente
@@ -382,63 +436,14 @@ public class ElevadorApp {
     }
 
     private void adicionarPessoasAleatorias(int quantidade) {
-        // Obter o prédio do simulador
-        Predio predio = simulador.getPredio();
-        
-        // Obter a lista de andares
-        Lista andares = predio.getAndares();
-        int totalAndares = 0;
-        
-        // Contar o número total de andares
-        Ponteiro p = andares.getInicio();
-        while (p != null) {
-            totalAndares++;
-            p = p.getProximo();
-        }
-        
-        if (totalAndares < 2) {
+        // A quantidade de andares não muda durante a simulação, pode ser lida aqui
+        if (simulador.getPredio().getQuantidadeAndares() < 2) {
             JOptionPane.showMessageDialog(frame, "É necessário ter pelo menos 2 andares para adicionar pessoas!", 
                                          "Erro", JOptionPane.ERROR_MESSAGE);
             return;
         }
-        
-        // Adicionar a quantidade especificada de pessoas
-        for (int i = 0; i < quantidade; i++) {
-            // Gerar origem e destino aleatórios (diferentes entre si)
-            int origem = random.nextInt(totalAndares);
-            int destino;
-            do {
-                destino = random.nextInt(totalAndares);
-            } while (destino == origem);
-            
-            // Encontrar o andar de origem
-            p = andares.getInicio();
-            Andar andarOrigem = null;
-            
-            for (int j = 0; j < origem && p != null; j++) {
-                p = p.getProximo();
-            }
-            
-            if (p != null) {
-                andarOrigem = (Andar) p.getElemento();
-                
-                // Criar uma nova pessoa
-                Pessoa pessoa = new Pessoa(simulador.getProximoIdPessoa(), origem, destino, simulador.getMinutoSimulado());
-                
-                // Adicionar a pessoa à fila de espera do andar
-                andarOrigem.getPessoasAguardando().enfileirar(pessoa);
-                
-                // Ativar o botão apropriado no painel do elevador
-                if (destino > origem) {
-                    andarOrigem.getPainel().pressionarSubir();
-                } else {
-                    andarOrigem.getPainel().pressionarDescer();
-                }
-            }
-        }
-        
-        // Incrementar o contador de pessoas geradas
-        simulador.incrementarPessoasGeradas(quantidade);
+        Simulador sim = simulador;
+        sim.enviarComando(() -> sim.adicionarPessoasAleatorias(quantidade, random));
         
         // Atualizar a interface
         buildingPanel.repaint();
@@ -448,8 +453,9 @@ public class ElevadorApp {
     }
 
     private void iniciarUITimer() {
+        // Só as regiões que mudaram desde o último quadro são repintadas
         uiUpdateTimer = new Timer(100, e -> {
-            buildingPanel.repaint();
+            buildingPanel.atualizar();
         });
         uiUpdateTimer.start();
     }
@@ -460,89 +466,273 @@ public class ElevadorApp {
         });
     }
 
-    // Classe interna para representar o painel do prédio
-    class BuildingPanel extends JPanel {
+    // Painel persistente com as estatísticas de um elevador; guarda os últimos valores
+    // exibidos e só altera o texto dos rótulos que mudaram
+    class ElevatorStatsView extends JPanel {
+        private final TitledBorder borda = BorderFactory.createTitledBorder("Elevador");
+        private final JLabel posicaoLabel = new JLabel();
+        private final JLabel estadoLabel = new JLabel();
+        private final JLabel ocupacaoLabel = new JLabel();
+        private final JLabel destinosLabel = new JLabel();
+        private int id = -1;
+        private int andar = -1;
+        private int estado = -1;
+        private int ocupacao = -1;
+        private int capacidade = -1;
+        private int[] destinos = new int[0];
+        private int totalDestinos = -1;
+
+        public ElevatorStatsView() {
+            setLayout(new BoxLayout(this, BoxLayout.Y_AXIS));
+            setBorder(borda);
+            add(posicaoLabel);
+            add(estadoLabel);
+            add(ocupacaoLabel);
+            add(destinosLabel);
+        }
+
+        public void atualizar(EstadoVisual.ElevadorVisual elevador) {
+            if (elevador.getId() != id) {
+                id = elevador.getId();
+                borda.setTitle("Elevador " + id);
+                repaint();
+            }
+            if (elevador.getAndarAtual() != andar) {
+                andar = elevador.getAndarAtual();
+                posicaoLabel.setText("Posição: Andar " + andar);
+            }
+            int novoEstado = elevador.estaEmMovimento() ? (elevador.estaSubindo() ? 1 : 2) : 0;
+            if (novoEstado != estado) {
+                estado = novoEstado;
+                estadoLabel.setText("Estado: " + (estado == 1 ? "Subindo" : estado == 2 ? "Descendo" : "Parado"));
+            }
+            if (elevador.getOcupacao() != ocupacao || elevador.getCapacidadeMaxima() != capacidade) {
+                ocupacao = elevador.getOcupacao();
+                capacidade = elevador.getCapacidadeMaxima();
+                ocupacaoLabel.setText("Ocupação: " + ocupacao + "/" + capacidade);
+            }
+            if (destinosMudaram(elevador)) {
+                totalDestinos = elevador.getTotalParadas();
+                destinos = new int[elevador.getParadasCopiadas()];
+                for (int i = 0; i < destinos.length; i++) {
+                    destinos[i] = elevador.getParada(i);
+                }
+                destinosLabel.setText(textoDestinos());
+            }
+        }
+
+        private boolean destinosMudaram(EstadoVisual.ElevadorVisual elevador) {
+            if (elevador.getTotalParadas() != totalDestinos || elevador.getParadasCopiadas() != destinos.length) {
+                return true;
+            }
+            for (int i = 0; i < destinos.length; i++) {
+                if (elevador.getParada(i) != destinos[i]) return true;
+            }
+            return false;
+        }
+
+        private String textoDestinos() {
+            if (totalDestinos == 0) return "Destinos: Nenhum";
+            StringBuilder sb = new StringBuilder("Destinos: ");
+            for (int i = 0; i < destinos.length; i++) {
+                sb.append(destinos[i]);
+                if (i < destinos.length - 1) {
+                    sb.append(", ");
+                }
+            }
+            if (totalDestinos > destinos.length) {
+                sb.append("... (+" + (totalDestinos - destinos.length) + " mais)");
+            }
+            return sb.toString();
+        }
+    }
+
+    // Painel do prédio. As linhas e os nomes dos andares ficam guardados em uma imagem de
+    // fundo; a cada estado novo só são repintados os andares e os elevadores que mudaram,
+    // e filas maiores que uma linha são desenhadas como uma figura com a contagem.
+    static class BuildingPanel extends JPanel {
         private Simulador simulador;
         private final int ANDAR_HEIGHT = 80;
         private final int ELEVADOR_WIDTH = 60;
         private final int PESSOA_SIZE = 20;
         private final int MARGIN = 20;
+        // Acima destes limites as pessoas deixam de ser desenhadas uma a uma
+        private final int PESSOAS_POR_LINHA = 10;
+        private final int PASSAGEIROS_DESENHADOS = 4;
+        // Com mais regiões alteradas que isso, a área visível é repintada de uma vez
+        private final int MAXIMO_REGIOES = 32;
+
+        private EstadoVisual estadoDesenhado;
+        private final Lista<Rectangle> regioesAlteradas = new Lista<>();
+
+        // Imagem do fundo estático, cobrindo a área visível com uma folga acima e abaixo
+        private BufferedImage fundo;
+        private final Rectangle areaFundo = new Rectangle();
+        private int larguraFundo = -1;
+        private int alturaFundo = -1;
 
         public BuildingPanel(Simulador simulador) {
             this.simulador = simulador;
             
             // Calcular a altura necessária com base no número de andares
-            int numAndares = 0;
-            Lista andares = simulador.getPredio().getAndares();
-            Ponteiro p = andares.getInicio();
-            while (p != null) {
-                numAndares++;
-                p = p.getProximo();
-            }
+            int numAndares = simulador.getPredio().getQuantidadeAndares();
             
             setPreferredSize(new Dimension(800, numAndares * ANDAR_HEIGHT + MARGIN * 2));
         }
 
+        // Chamado pelo timer da interface: compara o último estado publicado com o que está
+        // desenhado e repinta só os retângulos dos andares e elevadores que mudaram.
+        // O RepaintManager juntaria todos os repaint(r) em um único retângulo envolvente,
+        // por isso cada região é pintada diretamente com paintImmediately.
+        public void atualizar() {
+            EstadoVisual novo = simulador.getEstadoVisual();
+            EstadoVisual anterior = estadoDesenhado;
+            if (novo == anterior) return;
+            estadoDesenhado = novo;
+
+            if (anterior == null || anterior.getQuantidadeAndares() != novo.getQuantidadeAndares()
+                    || anterior.getQuantidadeElevadores() != novo.getQuantidadeElevadores()) {
+                repaint();
+                return;
+            }
+
+            Rectangle visivel = getVisibleRect();
+            regioesAlteradas.limpar();
+            for (int a = 0; a < novo.getQuantidadeAndares(); a++) {
+                if (andarMudou(anterior.getAndar(a), novo.getAndar(a))) {
+                    marcarAlterada(retanguloAndar(a), visivel);
+                }
+            }
+            for (int e = 0; e < novo.getQuantidadeElevadores(); e++) {
+                EstadoVisual.ElevadorVisual antes = anterior.getElevador(e);
+                EstadoVisual.ElevadorVisual agora = novo.getElevador(e);
+                if (elevadorMudou(antes, agora)) {
+                    marcarAlterada(retanguloElevador(e, antes.getAndarAtual()), visivel);
+                    marcarAlterada(retanguloElevador(e, agora.getAndarAtual()), visivel);
+                }
+            }
+
+            if (regioesAlteradas.getTamanho() > MAXIMO_REGIOES) {
+                paintImmediately(visivel);
+            } else {
+                for (int i = 0; i < regioesAlteradas.getTamanho(); i++) {
+                    paintImmediately(regioesAlteradas.get(i));
+                }
+            }
+        }
+
+        // Guarda a parte visível da região, unindo-a a uma região já marcada que ela toque
+        private void marcarAlterada(Rectangle regiao, Rectangle visivel) {
+            Rectangle r = regiao.intersection(visivel);
+            if (r.isEmpty()) return;
+            for (int i = 0; i < regioesAlteradas.getTamanho(); i++) {
+                Rectangle existente = regioesAlteradas.get(i);
+                if (existente.intersects(r.x - 1, r.y - 1, r.width + 2, r.height + 2)) {
+                    existente.add(r);
+                    return;
+                }
+            }
+            regioesAlteradas.inserirFim(r);
+        }
+
+        private boolean andarMudou(EstadoVisual.AndarVisual antes, EstadoVisual.AndarVisual agora) {
+            if (antes.isBotaoSubirAtivado() != agora.isBotaoSubirAtivado()
+                    || antes.isBotaoDescerAtivado() != agora.isBotaoDescerAtivado()
+                    || antes.getPessoasAguardando() != agora.getPessoasAguardando()) {
+                return true;
+            }
+            // Filas grandes mostram só a contagem, que já foi comparada
+            int desenhadas = agora.getPessoasAguardando() > PESSOAS_POR_LINHA ? 0 : agora.getPessoasCopiadas();
+            for (int i = 0; i < desenhadas; i++) {
+                if (antes.getIdPessoa(i) != agora.getIdPessoa(i)
+                        || antes.getDestinoPessoa(i) != agora.getDestinoPessoa(i)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean elevadorMudou(EstadoVisual.ElevadorVisual antes, EstadoVisual.ElevadorVisual agora) {
+            if (antes.getId() != agora.getId()
+                    || antes.getAndarAtual() != agora.getAndarAtual()
+                    || antes.estaEmMovimento() != agora.estaEmMovimento()
+                    || antes.getOcupacao() != agora.getOcupacao()
+                    || antes.getCapacidadeMaxima() != agora.getCapacidadeMaxima()
+                    || antes.getTotalParadas() != agora.getTotalParadas()) {
+                return true;
+            }
+            int desenhados = agora.getOcupacao() > PASSAGEIROS_DESENHADOS ? 0 : agora.getPessoasCopiadas();
+            for (int i = 0; i < desenhados; i++) {
+                if (antes.getIdPessoa(i) != agora.getIdPessoa(i)
+                        || antes.getDestinoPessoa(i) != agora.getDestinoPessoa(i)) {
+                    return true;
+                }
+            }
+            int paradas = Math.min(3, agora.getParadasCopiadas());
+            for (int i = 0; i < paradas; i++) {
+                if (antes.getParada(i) != agora.getParada(i)) return true;
+            }
+            return false;
+        }
+
+        // Parte dinâmica de um andar: contagem, fila e botões (as linhas ficam no fundo)
+        private Rectangle retanguloAndar(int andar) {
+            int andarY = getHeight() - MARGIN - andar * ANDAR_HEIGHT;
+            int largura = 40 + PESSOAS_POR_LINHA * (PESSOA_SIZE + 5) + 20;
+            return new Rectangle(MARGIN + 60, andarY - ANDAR_HEIGHT, largura, ANDAR_HEIGHT);
+        }
+
+        // A segunda linha de passageiros passa um pouco da caixa do elevador
+        private Rectangle retanguloElevador(int indice, int andar) {
+            int elevadorX = getWidth() - MARGIN - ELEVADOR_WIDTH - indice * (ELEVADOR_WIDTH + 10);
+            int elevadorY = getHeight() - MARGIN - (andar * ANDAR_HEIGHT) - ANDAR_HEIGHT;
+            return new Rectangle(elevadorX, elevadorY, ELEVADOR_WIDTH, ANDAR_HEIGHT + PESSOA_SIZE + 5);
+        }
+
         @Override
         protected void paintComponent(Graphics g) {
-            super.paintComponent(g);
+            if (estadoDesenhado == null) {
+                estadoDesenhado = simulador.getEstadoVisual();
+            }
+            EstadoVisual estado = estadoDesenhado;
+            Rectangle clip = g.getClipBounds();
+            if (clip == null) {
+                clip = new Rectangle(0, 0, getWidth(), getHeight());
+            }
+            desenharFundo(g, clip, estado.getQuantidadeAndares());
+
             Graphics2D g2d = (Graphics2D) g;
             g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
-            // Desenhar o prédio
-            Predio predio = simulador.getPredio();
-            Lista andares = predio.getAndares();
-            CentralDeControle central = predio.getCentral();
-            Lista elevadores = central.getElevadores();
-
-            // Desenhar os andares
-            Ponteiro pAndar = andares.getInicio();
-            int andarY = getHeight() - MARGIN;
+            // Desenhar só os andares que cruzam a região sendo pintada
+            int base = getHeight() - MARGIN;
+            int primeiro = Math.max(0, Math.floorDiv(base - (clip.y + clip.height), ANDAR_HEIGHT));
+            int ultimo = Math.min(estado.getQuantidadeAndares() - 1, Math.floorDiv(base - clip.y, ANDAR_HEIGHT));
             
-            while (pAndar != null) {
-                Andar andar = (Andar) pAndar.getElemento();
-                
-                // Desenhar o andar
-                g2d.setColor(Color.LIGHT_GRAY);
-                g2d.fillRect(MARGIN, andarY - ANDAR_HEIGHT, getWidth() - MARGIN * 2, 2);
-                
-                // Número do andar
-                g2d.setColor(Color.BLACK);
-                g2d.drawString("Andar " + andar.getNumero(), MARGIN, andarY - ANDAR_HEIGHT / 2);
+            for (int a = primeiro; a <= ultimo; a++) {
+                EstadoVisual.AndarVisual andar = estado.getAndar(a);
+                int andarY = base - a * ANDAR_HEIGHT;
                 
                 // Desenhar pessoas esperando
-                Fila pessoasAguardando = andar.getPessoasAguardando();
-                if (!pessoasAguardando.estaVazia()) {
-                    Ponteiro pPessoa = pessoasAguardando.getLista().getInicio();
+                int aguardando = andar.getPessoasAguardando();
+                int pessoaY = andarY - ANDAR_HEIGHT / 2;
+                if (aguardando > PESSOAS_POR_LINHA) {
+                    // Fila grande: uma figura com a contagem no lugar das pessoas
+                    desenharGrupo(g2d, MARGIN + 100, pessoaY, aguardando, Color.BLACK);
+                } else {
                     int pessoaX = MARGIN + 100;
-                    int pessoaY = andarY - ANDAR_HEIGHT / 2;
-                    int pessoasPorLinha = 0;
-                    
-                    while (pPessoa != null) {
-                        Pessoa pessoa = (Pessoa) pPessoa.getElemento();
-                        desenharPessoa(g2d, pessoaX, pessoaY, pessoa);
-                        
+                    for (int i = 0; i < aguardando; i++) {
+                        desenharPessoa(g2d, pessoaX, pessoaY, andar.getIdPessoa(i), andar.getDestinoPessoa(i));
                         pessoaX += PESSOA_SIZE + 5;
-                        pessoasPorLinha++;
-                        
-                        // Se atingir o limite de pessoas por linha, pule para a próxima linha
-                        if (pessoasPorLinha >= 10) {
-                            pessoasPorLinha = 0;
-                            pessoaX = MARGIN + 100;
-                            pessoaY += PESSOA_SIZE + 5;
-                        }
-                        
-                        pPessoa = pPessoa.getProximo();
                     }
                 }
                 
                 // Desenhar botões do painel
-                PainelElevador painel = andar.getPainel();
                 int painelX = MARGIN + 200;
                 int painelY = andarY - ANDAR_HEIGHT / 2;
                 
                 // Botão subir
-                g2d.setColor(painel.isBotaoSubirAtivado() ? Color.RED : Color.GRAY);
+                g2d.setColor(andar.isBotaoSubirAtivado() ? Color.RED : Color.GRAY);
                 g2d.fillPolygon(
                     new int[]{painelX, painelX + 15, painelX + 30},
                     new int[]{painelY, painelY - 15, painelY},
@@ -550,27 +740,21 @@ public class ElevadorApp {
                 );
                 
                 // Botão descer
-                g2d.setColor(painel.isBotaoDescerAtivado() ? Color.RED : Color.GRAY);
+                g2d.setColor(andar.isBotaoDescerAtivado() ? Color.RED : Color.GRAY);
                 g2d.fillPolygon(
                     new int[]{painelX, painelX + 15, painelX + 30},
                     new int[]{painelY + 20, painelY + 35, painelY + 20},
                     3
                 );
-                
-                andarY -= ANDAR_HEIGHT;
-                pAndar = pAndar.getProximo();
             }
             
-            // Desenhar os elevadores
-            Ponteiro pElevador = elevadores.getInicio();
-            int elevadorX = getWidth() - MARGIN - ELEVADOR_WIDTH;
-            int elevadorIndex = 0;
-            
-            while (pElevador != null) {
-                Elevador elevador = (Elevador) pElevador.getElemento();
-                
-                // Posição do elevador
-                int elevadorY = getHeight() - MARGIN - (elevador.getAndarAtual() * ANDAR_HEIGHT) - ANDAR_HEIGHT;
+            // Desenhar os elevadores que cruzam a região sendo pintada
+            for (int e = 0; e < estado.getQuantidadeElevadores(); e++) {
+                EstadoVisual.ElevadorVisual elevador = estado.getElevador(e);
+                Rectangle area = retanguloElevador(e, elevador.getAndarAtual());
+                if (!area.intersects(clip)) continue;
+                int elevadorX = area.x;
+                int elevadorY = area.y;
                 
                 // Desenhar o elevador
                 g2d.setColor(elevador.estaEmMovimento() ? Color.GREEN : Color.BLUE);
@@ -579,20 +763,19 @@ public class ElevadorApp {
                 // ID do elevador e capacidade
                 g2d.setColor(Color.WHITE);
                 g2d.drawString("E" + elevador.getId(), elevadorX + 5, elevadorY + 15);
-                g2d.drawString(elevador.getPessoasDentro().getTamanho() + "/" + elevador.getCapacidadeMaxima(), 
+                g2d.drawString(elevador.getOcupacao() + "/" + elevador.getCapacidadeMaxima(), 
                               elevadorX + 5, elevadorY + 30);
                 
                 // Desenhar pessoas dentro do elevador
-                Lista pessoasDentro = elevador.getPessoasDentro();
-                if (!pessoasDentro.estaVazia()) {
-                    Ponteiro pPessoa = pessoasDentro.getInicio();
+                if (elevador.getOcupacao() > PASSAGEIROS_DESENHADOS) {
+                    desenharGrupo(g2d, elevadorX + 5, elevadorY + 40, elevador.getOcupacao(), Color.WHITE);
+                } else if (elevador.getOcupacao() > 0) {
                     int pessoaX = elevadorX + 5;
                     int pessoaY = elevadorY + 40;
                     int pessoasPorLinha = 0;
                     
-                    while (pPessoa != null) {
-                        Pessoa pessoa = (Pessoa) pPessoa.getElemento();
-                        desenharPessoa(g2d, pessoaX, pessoaY, pessoa);
+                    for (int i = 0; i < elevador.getOcupacao(); i++) {
+                        desenharPessoa(g2d, pessoaX, pessoaY, elevador.getIdPessoa(i), elevador.getDestinoPessoa(i));
                         
                         pessoaX += PESSOA_SIZE + 2;
                         pessoasPorLinha++;
@@ -603,46 +786,101 @@ public class ElevadorApp {
                             pessoaX = elevadorX + 5;
                             pessoaY += PESSOA_SIZE + 2;
                         }
-                        
-                        pPessoa = pPessoa.getProximo();
                     }
                 }
                 
                 // Desenhar destinos pendentes
-                List<Integer> destinos = elevador.getAndaresParaAtender();
-                if (!destinos.isEmpty()) {
+                if (elevador.getTotalParadas() > 0) {
                     g2d.setColor(Color.WHITE);
                     StringBuilder sb = new StringBuilder("→ ");
-                    for (int i = 0; i < Math.min(3, destinos.size()); i++) {
-                        sb.append(destinos.get(i));
-                        if (i < Math.min(3, destinos.size()) - 1) {
+                    int mostrados = Math.min(3, elevador.getParadasCopiadas());
+                    for (int i = 0; i < mostrados; i++) {
+                        sb.append(elevador.getParada(i));
+                        if (i < mostrados - 1) {
                             sb.append(",");
                         }
                     }
-                    if (destinos.size() > 3) {
+                    if (elevador.getTotalParadas() > 3) {
                         sb.append("...");
                     }
                     g2d.drawString(sb.toString(), elevadorX + 5, elevadorY + ANDAR_HEIGHT - 15);
                 }
+            }
+        }
+
+        // Copia o fundo da imagem guardada, refazendo-a quando o painel muda de tamanho ou
+        // a região pintada sai da área coberta (rolagem além da folga)
+        private void desenharFundo(Graphics g, Rectangle clip, int quantidadeAndares) {
+            boolean valido = fundo != null && larguraFundo == getWidth() && alturaFundo == getHeight()
+                             && areaFundo.contains(clip);
+            if (!valido) {
+                Rectangle visivel = getVisibleRect();
+                Rectangle area = new Rectangle(visivel.x, visivel.y - visivel.height,
+                                               visivel.width, visivel.height * 3);
+                area = area.intersection(new Rectangle(0, 0, getWidth(), getHeight()));
+                if (area.isEmpty() || !area.contains(clip)) {
+                    // Fora da área visível (ex.: impressão): desenhar direto
+                    desenharEstatico((Graphics2D) g, clip, quantidadeAndares);
+                    return;
+                }
+                GraphicsConfiguration configuracao = getGraphicsConfiguration();
+                fundo = configuracao != null
+                        ? configuracao.createCompatibleImage(area.width, area.height)
+                        : new BufferedImage(area.width, area.height, BufferedImage.TYPE_INT_RGB);
+                Graphics2D gi = fundo.createGraphics();
+                gi.setFont(getFont());
+                gi.translate(-area.x, -area.y);
+                desenharEstatico(gi, area, quantidadeAndares);
+                gi.dispose();
+                areaFundo.setBounds(area);
+                larguraFundo = getWidth();
+                alturaFundo = getHeight();
+            }
+            g.drawImage(fundo, areaFundo.x, areaFundo.y, null);
+        }
+
+        // Fundo, linhas e números dos andares que cruzam a área
+        private void desenharEstatico(Graphics2D g2d, Rectangle area, int quantidadeAndares) {
+            g2d.setColor(getBackground());
+            g2d.fillRect(area.x, area.y, area.width, area.height);
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+            int base = getHeight() - MARGIN;
+            int primeiro = Math.max(0, Math.floorDiv(base - (area.y + area.height), ANDAR_HEIGHT));
+            int ultimo = Math.min(quantidadeAndares - 1, Math.floorDiv(base - area.y, ANDAR_HEIGHT));
+            for (int a = primeiro; a <= ultimo; a++) {
+                int andarY = base - a * ANDAR_HEIGHT;
+                
+                // Desenhar o andar
+                g2d.setColor(Color.LIGHT_GRAY);
+                g2d.fillRect(MARGIN, andarY - ANDAR_HEIGHT, getWidth() - MARGIN * 2, 2);
                 
-                elevadorX -= ELEVADOR_WIDTH + 10;
-                elevadorIndex++;
-                pElevador = pElevador.getProximo();
+                // Número do andar
+                g2d.setColor(Color.BLACK);
+                g2d.drawString("Andar " + a, MARGIN, andarY - ANDAR_HEIGHT / 2);
             }
         }
         
-        private void desenharPessoa(Graphics2D g2d, int x, int y, Pessoa pessoa) {
+        private void desenharPessoa(Graphics2D g2d, int x, int y, int id, int andarDestino) {
             // Desenhar círculo para a cabeça
             g2d.setColor(Color.ORANGE);
             g2d.fillOval(x, y - PESSOA_SIZE/2, PESSOA_SIZE, PESSOA_SIZE);
             
             // Desenhar ID da pessoa
             g2d.setColor(Color.BLACK);
-            g2d.drawString(String.valueOf(pessoa.getId()), x + 5, y + 5);
+            g2d.drawString(String.valueOf(id), x + 5, y + 5);
             
             // Desenhar uma pequena indicação do destino
             g2d.setColor(Color.RED);
-            g2d.drawString("→" + pessoa.getAndarDestino(), x, y + PESSOA_SIZE);
+            g2d.drawString("→" + andarDestino, x, y + PESSOA_SIZE);
+        }
+
+        // Uma figura representando várias pessoas, com a quantidade ao lado
+        private void desenharGrupo(Graphics2D g2d, int x, int y, int quantidade, Color corTexto) {
+            g2d.setColor(Color.ORANGE);
+            g2d.fillOval(x, y - PESSOA_SIZE/2, PESSOA_SIZE, PESSOA_SIZE);
+            g2d.setColor(corTexto);
+            g2d.drawString("×" + quantidade, x + PESSOA_SIZE + 3, y + 5);
         }
     }
 }
@@ -0,0 +1,263 @@
+import java.util.function.IntFunction;
+
+/**
+ * Cópia imutável do estado da simulação ao fim de um minuto, para a interface gráfica.
+ * É montada pela thread da simulação e publicada por uma referência volátil no Simulador;
+ * a thread do Swing só lê esta cópia, nunca as estruturas que a simulação está alterando.
+ * As filas e os passageiros são copiados até LIMITE_PESSOAS por andar/elevador (o total
+ * é mantido), para que o custo da cópia não cresça com filas enormes.
+ */
+public final class EstadoVisual {
+    public static final int LIMITE_PESSOAS = 30;
+    public static final int LIMITE_DESTINOS = 10;
+
+    private final int minuto;
+    private final HeuristicaElevador heuristica;
+    private final int pessoasGeradas;
+    private final int pessoasTransportadas;
+    private final double tempoMedioEspera;
+    private final double tempoMedioViagem;
+    private final double tempoMedioTotal;
+    private final int esperaP50;
+    private final int esperaP95;
+    private final int esperaP99;
+    private final boolean horarioPico;
+    private final AndarVisual[] andares;
+    private final ElevadorVisual[] elevadores;
+
+    private EstadoVisual(Simulador simulador) {
+        Predio predio = simulador.getPredio();
+        this.minuto = simulador.getMinutoSimulado();
+        this.heuristica = simulador.getHeuristicaAtual();
+        this.pessoasGeradas = simulador.getPessoasGeradas();
+        this.pessoasTransportadas = simulador.getPessoasTransportadas();
+        this.tempoMedioEspera = simulador.getTempoMedioEspera();
+        this.tempoMedioViagem = simulador.getTempoMedioViagem();
+        this.tempoMedioTotal = simulador.getTempoMedioTotal();
+        this.esperaP50 = simulador.getPercentilEspera(50);
+        this.esperaP95 = simulador.getPercentilEspera(95);
+        this.esperaP99 = simulador.getPercentilEspera(99);
+        this.horarioPico = predio.isHorarioPico();
+
+        this.andares = new AndarVisual[predio.getQuantidadeAndares()];
+        for (int i = 0; i < andares.length; i++) {
+            andares[i] = new AndarVisual(predio.getAndar(i));
+        }
+        Lista<Elevador> lista = predio.getCentral().getElevadores();
+        this.elevadores = new ElevadorVisual[lista.getTamanho()];
+        for (int i = 0; i < elevadores.length; i++) {
+            elevadores[i] = new ElevadorVisual(lista.get(i));
+        }
+    }
+
+    // Deve ser chamado pela thread que executa a simulação
+    public static EstadoVisual capturar(Simulador simulador) {
+        return new EstadoVisual(simulador);
+    }
+
+    public int getMinuto() {
+        return minuto;
+    }
+
+    public HeuristicaElevador getHeuristica() {
+        return heuristica;
+    }
+
+    public int getPessoasGeradas() {
+        return pessoasGeradas;
+    }
+
+    public int getPessoasTransportadas() {
+        return pessoasTransportadas;
+    }
+
+    public double getTempoMedioEspera() {
+        return tempoMedioEspera;
+    }
+
+    public double getTempoMedioViagem() {
+        return tempoMedioViagem;
+    }
+
+    public double getTempoMedioTotal() {
+        return tempoMedioTotal;
+    }
+
+    public int getEsperaP50() {
+        return esperaP50;
+    }
+
+    public int getEsperaP95() {
+        return esperaP95;
+    }
+
+    public int getEsperaP99() {
+        return esperaP99;
+    }
+
+    public boolean isHorarioPico() {
+        return horarioPico;
+    }
+
+    public int getQuantidadeAndares() {
+        return andares.length;
+    }
+
+    public AndarVisual getAndar(int indice) {
+        return andares[indice];
+    }
+
+    public int getQuantidadeElevadores() {
+        return elevadores.length;
+    }
+
+    public ElevadorVisual getElevador(int indice) {
+        return elevadores[indice];
+    }
+
+    // Ids e destinos das primeiras pessoas de uma fila ou de um elevador
+    private static int[][] copiarPessoas(int quantidade, IntFunction<Pessoa> pessoa) {
+        int copiadas = Math.min(quantidade, LIMITE_PESSOAS);
+        int[][] dados = new int[2][copiadas];
+        for (int i = 0; i < copiadas; i++) {
+            Pessoa p = pessoa.apply(i);
+            dados[0][i] = p.getId();
+            dados[1][i] = p.getAndarDestino();
+        }
+        return dados;
+    }
+
+    public static final class AndarVisual {
+        private final int numero;
+        private final boolean botaoSubir;
+        private final boolean botaoDescer;
+        private final int pessoasAguardando;
+        private final int[] ids;
+        private final int[] destinos;
+
+        private AndarVisual(Andar andar) {
+            this.numero = andar.getNumero();
+            this.botaoSubir = andar.getPainel().isBotaoSubirAtivado();
+            this.botaoDescer = andar.getPainel().isBotaoDescerAtivado();
+            this.pessoasAguardando = andar.getQuantidadeAguardando();
+            Pessoa[] primeiras = new Pessoa[Math.min(pessoasAguardando, LIMITE_PESSOAS)];
+            andar.copiarPessoasAguardando(primeiras);
+            int[][] pessoas = copiarPessoas(primeiras.length, i -> primeiras[i]);
+            this.ids = pessoas[0];
+            this.destinos = pessoas[1];
+        }
+
+        public int getNumero() {
+            return numero;
+        }
+
+        public boolean isBotaoSubirAtivado() {
+            return botaoSubir;
+        }
+
+        public boolean isBotaoDescerAtivado() {
+            return botaoDescer;
+        }
+
+        // Total de pessoas na fila (pode ser maior que getPessoasCopiadas)
+        public int getPessoasAguardando() {
+            return pessoasAguardando;
+        }
+
+        public int getPessoasCopiadas() {
+            return ids.length;
+        }
+
+        public int getIdPessoa(int indice) {
+            return ids[indice];
+        }
+
+        public int getDestinoPessoa(int indice) {
+            return destinos[indice];
+        }
+    }
+
+    public static final class ElevadorVisual {
+        private final int id;
+        private final int andarAtual;
+        private final boolean emMovimento;
+        private final boolean subindo;
+        private final int ocupacao;
+        private final int capacidadeMaxima;
+        private final int[] ids;
+        private final int[] destinos;
+        private final int totalParadas;
+        private final int[] paradas; // As primeiras LIMITE_DESTINOS, em ordem crescente
+
+        private ElevadorVisual(Elevador elevador) {
+            this.id = elevador.getId();
+            this.andarAtual = elevador.getAndarAtual();
+            this.emMovimento = elevador.estaEmMovimento();
+            this.subindo = elevador.estaSubindo();
+            this.ocupacao = elevador.getOcupacao();
+            this.capacidadeMaxima = elevador.getCapacidadeMaxima();
+            Pessoa[] primeiros = new Pessoa[Math.min(ocupacao, LIMITE_PESSOAS)];
+            elevador.copiarPassageiros(primeiros);
+            int[][] pessoas = copiarPessoas(primeiros.length, i -> primeiros[i]);
+            this.ids = pessoas[0];
+            this.destinos = pessoas[1];
+
+            ConjuntoParadas conjunto = elevador.getAndaresParaAtender();
+            this.totalParadas = conjunto.getTamanho();
+            this.paradas = new int[Math.min(totalParadas, LIMITE_DESTINOS)];
+            int andar = conjunto.menor();
+            for (int i = 0; i < paradas.length; i++) {
+                paradas[i] = andar;
+                andar = conjunto.proximaAPartirDe(andar + 1);
+            }
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public int getAndarAtual() {
+            return andarAtual;
+        }
+
+        public boolean estaEmMovimento() {
+            return emMovimento;
+        }
+
+        public boolean estaSubindo() {
+            return subindo;
+        }
+
+        public int getOcupacao() {
+            return ocupacao;
+        }
+
+        public int getCapacidadeMaxima() {
+            return capacidadeMaxima;
+        }
+
+        public int getPessoasCopiadas() {
+            return ids.length;
+        }
+
+        public int getIdPessoa(int indice) {
+            return ids[indice];
+        }
+
+        public int getDestinoPessoa(int indice) {
+            return destinos[indice];
+        }
+
+        public int getTotalParadas() {
+            return totalParadas;
+        }
+
+        public int getParadasCopiadas() {
+            return paradas.length;
+        }
+
+        public int getParada(int indice) {
+            return paradas[indice];
+        }
+    }
+}
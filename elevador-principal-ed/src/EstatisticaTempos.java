@@ -0,0 +1,164 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Estatísticas de uma série de tempos (em minutos) com memória limitada: quantidade,
+ * média e variância pelo método de Welford, mínimo, máximo e um histograma logarítmico
+ * (no estilo HDR) para percentis. Valores até 255 são contados exatamente; acima disso
+ * cada potência de 2 é dividida em 128 faixas, com erro relativo menor que 1%.
+ * Duas estatísticas podem ser mescladas (por exemplo, de simulações diferentes).
+ */
+public class EstatisticaTempos implements Serializable {
+    private static final int LIMITE_EXATO = 256;   // Valores abaixo disso têm faixa própria
+    private static final int FAIXAS_POR_OITAVA = 128;
+    private static final int BITS_SUBFAIXA = 7;    // log2(FAIXAS_POR_OITAVA)
+    private static final int PRIMEIRA_OITAVA = 8;  // log2(LIMITE_EXATO)
+
+    private long quantidade;
+    private double media;
+    private double somaQuadradosDesvios; // M2 de Welford
+    private int minimo;
+    private int maximo;
+    private long[] contagens;
+
+    public EstatisticaTempos() {
+        this.quantidade = 0;
+        this.media = 0;
+        this.somaQuadradosDesvios = 0;
+        this.minimo = Integer.MAX_VALUE;
+        this.maximo = Integer.MIN_VALUE;
+        this.contagens = new long[LIMITE_EXATO];
+    }
+
+    public void registrar(int valor) {
+        quantidade++;
+        double delta = valor - media;
+        media += delta / quantidade;
+        somaQuadradosDesvios += delta * (valor - media);
+        minimo = Math.min(minimo, valor);
+        maximo = Math.max(maximo, valor);
+
+        int faixa = faixa(Math.max(0, valor));
+        if (faixa >= contagens.length) {
+            contagens = Arrays.copyOf(contagens, faixa + FAIXAS_POR_OITAVA);
+        }
+        contagens[faixa]++;
+    }
+
+    // Acrescenta a esta estatística todos os valores registrados na outra
+    public void mesclar(EstatisticaTempos outra) {
+        if (outra.quantidade == 0) return;
+
+        long total = quantidade + outra.quantidade;
+        double delta = outra.media - media;
+        media += delta * outra.quantidade / total;
+        somaQuadradosDesvios += outra.somaQuadradosDesvios + delta * delta * quantidade * outra.quantidade / total;
+        quantidade = total;
+        minimo = Math.min(minimo, outra.minimo);
+        maximo = Math.max(maximo, outra.maximo);
+
+        if (outra.contagens.length > contagens.length) {
+            contagens = Arrays.copyOf(contagens, outra.contagens.length);
+        }
+        for (int i = 0; i < outra.contagens.length; i++) {
+            contagens[i] += outra.contagens[i];
+        }
+    }
+
+    private static int faixa(int valor) {
+        if (valor < LIMITE_EXATO) return valor;
+        int oitava = 31 - Integer.numberOfLeadingZeros(valor);
+        int deslocamento = oitava - BITS_SUBFAIXA;
+        return LIMITE_EXATO + (oitava - PRIMEIRA_OITAVA) * FAIXAS_POR_OITAVA
+               + (valor >>> deslocamento) - FAIXAS_POR_OITAVA;
+    }
+
+    // Valor representativo (meio) da faixa
+    private static int valorDaFaixa(int faixa) {
+        if (faixa < LIMITE_EXATO) return faixa;
+        int oitava = (faixa - LIMITE_EXATO) / FAIXAS_POR_OITAVA + PRIMEIRA_OITAVA;
+        int subfaixa = (faixa - LIMITE_EXATO) % FAIXAS_POR_OITAVA;
+        int deslocamento = oitava - BITS_SUBFAIXA;
+        long inicio = (long) (FAIXAS_POR_OITAVA + subfaixa) << deslocamento;
+        return (int) Math.min(Integer.MAX_VALUE, inicio + ((1L << deslocamento) - 1) / 2);
+    }
+
+    // Percentil entre 0 e 100 (ex.: 95 para o p95); 0 se não houver valores
+    public int getPercentil(double percentil) {
+        if (quantidade == 0) return 0;
+
+        long posicao = Math.max(1, (long) Math.ceil(percentil / 100.0 * quantidade));
+        long acumulado = 0;
+        for (int i = 0; i < contagens.length; i++) {
+            acumulado += contagens[i];
+            if (acumulado >= posicao) {
+                return Math.max(minimo, Math.min(maximo, valorDaFaixa(i)));
+            }
+        }
+        return maximo;
+    }
+
+    // Estado no formato de SnapshotSimulacao; apenas as faixas não vazias do histograma são gravadas
+    public void gravarEstado(DataOutput out) throws IOException {
+        SnapshotSimulacao.escreverLong(out, quantidade);
+        out.writeDouble(media);
+        out.writeDouble(somaQuadradosDesvios);
+        SnapshotSimulacao.escreverInt(out, minimo);
+        SnapshotSimulacao.escreverInt(out, maximo);
+
+        int faixasUsadas = 0;
+        for (long contagem : contagens) {
+            if (contagem != 0) faixasUsadas++;
+        }
+        SnapshotSimulacao.escreverInt(out, contagens.length);
+        SnapshotSimulacao.escreverInt(out, faixasUsadas);
+        for (int i = 0; i < contagens.length; i++) {
+            if (contagens[i] != 0) {
+                SnapshotSimulacao.escreverInt(out, i);
+                SnapshotSimulacao.escreverLong(out, contagens[i]);
+            }
+        }
+    }
+
+    public void lerEstado(DataInput in) throws IOException {
+        quantidade = SnapshotSimulacao.lerLong(in);
+        media = in.readDouble();
+        somaQuadradosDesvios = in.readDouble();
+        minimo = SnapshotSimulacao.lerInt(in);
+        maximo = SnapshotSimulacao.lerInt(in);
+
+        contagens = new long[Math.max(LIMITE_EXATO, SnapshotSimulacao.lerInt(in))];
+        int faixasUsadas = SnapshotSimulacao.lerInt(in);
+        for (int i = 0; i < faixasUsadas; i++) {
+            int faixa = SnapshotSimulacao.lerInt(in);
+            contagens[faixa] = SnapshotSimulacao.lerLong(in);
+        }
+    }
+
+    public long getQuantidade() {
+        return quantidade;
+    }
+
+    public double getMedia() {
+        return media;
+    }
+
+    public double getVariancia() {
+        return quantidade > 1 ? somaQuadradosDesvios / (quantidade - 1) : 0;
+    }
+
+    public double getDesvioPadrao() {
+        return Math.sqrt(getVariancia());
+    }
+
+    public int getMinimo() {
+        return quantidade > 0 ? minimo : 0;
+    }
+
+    public int getMaximo() {
+        return quantidade > 0 ? maximo : 0;
+    }
+}
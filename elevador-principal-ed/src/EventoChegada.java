@@ -0,0 +1,41 @@
+import java.io.Serializable;
+
+// Chegada de uma pessoa agendada para um minuto da simulação. Chegadas do mesmo
+// minuto são entregues na ordem em que foram agendadas.
+public class EventoChegada implements Comparable<EventoChegada>, Serializable {
+    private final int minuto;
+    private final long sequencia;
+    private final int andarOrigem;
+    private final int andarDestino;
+
+    public EventoChegada(int minuto, long sequencia, int andarOrigem, int andarDestino) {
+        this.minuto = minuto;
+        this.sequencia = sequencia;
+        this.andarOrigem = andarOrigem;
+        this.andarDestino = andarDestino;
+    }
+
+    public int getMinuto() {
+        return minuto;
+    }
+
+    public long getSequencia() {
+        return sequencia;
+    }
+
+    public int getAndarOrigem() {
+        return andarOrigem;
+    }
+
+    public int getAndarDestino() {
+        return andarDestino;
+    }
+
+    @Override
+    public int compareTo(EventoChegada outro) {
+        if (minuto != outro.minuto) {
+            return Integer.compare(minuto, outro.minuto);
+        }
+        return Long.compare(sequencia, outro.sequencia);
+    }
+}
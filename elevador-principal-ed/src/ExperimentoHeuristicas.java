@@ -0,0 +1,143 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Executa em paralelo (uma simulação independente por núcleo) todas as combinações de uma
+ * grade de parâmetros e grava os resultados em CSV, para comparar as heurísticas.
+ * Simulações com a mesma semente recebem exatamente o mesmo tráfego. Com trafego=arquivo
+ * todas as simulações reproduzem o mesmo rastro gravado (taxa e sementes são ignorados).
+ * Com perfil=diario as chegadas seguem um dia típico com picos (GeradorTrafego.diaTipico).
+ *
+ * Uso: java ExperimentoHeuristicas [andares=10,20] [elevadores=2,4] [capacidade=8]
+ *      [heuristicas=1,2,3] [sementes=1,2,3] [minutos=1440] [taxa=0.5] [saida=resultados.csv]
+ *      [trafego=rastro.trf] [perfil=uniforme|diario]
+ */
+public class ExperimentoHeuristicas {
+    private static final String CABECALHO = "andares,elevadores,capacidade,heuristica,semente,minutos,"
+            + "pessoas_geradas,pessoas_transportadas,espera_media,espera_p95,espera_p99,"
+            + "viagem_media,total_media,total_p95,andares_percorridos,duracao_ms";
+
+    public static void main(String[] args) throws InterruptedException, ExecutionException, IOException {
+        int[] andares = {10};
+        int[] elevadores = {2};
+        int[] capacidades = {8};
+        int[] heuristicas = {1, 2, 3};
+        int[] sementes = {1, 2, 3};
+        int minutos = 1440;
+        double taxa = 0.5;
+        String saida = null;
+        String trafego = null;
+        boolean perfilDiario = false;
+
+        for (String arg : args) {
+            int separador = arg.indexOf('=');
+            String chave = separador < 0 ? arg : arg.substring(0, separador);
+            String valor = separador < 0 ? "" : arg.substring(separador + 1);
+            switch (chave) {
+                case "andares": andares = lerInteiros(valor); break;
+                case "elevadores": elevadores = lerInteiros(valor); break;
+                case "capacidade": capacidades = lerInteiros(valor); break;
+                case "heuristicas": heuristicas = lerInteiros(valor); break;
+                case "sementes": sementes = lerInteiros(valor); break;
+                case "minutos": minutos = Integer.parseInt(valor); break;
+                case "taxa": taxa = Double.parseDouble(valor); break;
+                case "saida": saida = valor; break;
+                case "trafego": trafego = valor; break;
+                case "perfil":
+                    if (!valor.equals("uniforme") && !valor.equals("diario")) {
+                        throw new IllegalArgumentException("Perfil desconhecido: " + valor + " (use uniforme ou diario)");
+                    }
+                    perfilDiario = valor.equals("diario");
+                    break;
+                default: throw new IllegalArgumentException("Parâmetro desconhecido: " + arg);
+            }
+        }
+
+        int modelos = HeuristicaElevador.values().length;
+        for (int h : heuristicas) {
+            if (h < 1 || h > modelos) {
+                throw new IllegalArgumentException("Heurística inválida: " + h + " (use os modelos de 1 a " + modelos + ")");
+            }
+        }
+
+        // Montar a grade e submeter uma tarefa por combinação
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        Lista<Future<String>> resultados = new Lista<>();
+        if (trafego != null) {
+            sementes = new int[] {0}; // O rastro já fixa o tráfego
+        }
+        for (int a : andares) {
+            for (int e : elevadores) {
+                for (int c : capacidades) {
+                    for (int h : heuristicas) {
+                        for (int s : sementes) {
+                            HeuristicaElevador heuristica = HeuristicaElevador.values()[h - 1];
+                            final int m = minutos;
+                            final double t = taxa;
+                            final String rastro = trafego;
+                            final boolean diario = perfilDiario;
+                            resultados.inserirFim(executor.submit(() -> executar(a, e, c, heuristica, s, m, t, rastro, diario)));
+                        }
+                    }
+                }
+            }
+        }
+
+        try (PrintStream out = saida == null ? new PrintStream(System.out, true) : new PrintStream(saida)) {
+            out.println(CABECALHO);
+            // As linhas saem na ordem da grade, independentemente de qual simulação terminou antes
+            for (int i = 0; i < resultados.getTamanho(); i++) {
+                out.println(resultados.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static String executar(int andares, int elevadores, int capacidade, HeuristicaElevador heuristica,
+                                   int semente, int minutos, double taxa, String trafego, boolean perfilDiario)
+            throws IOException {
+        Simulador simulador = new Simulador(andares, elevadores, 0, capacidade);
+        simulador.setHeuristicaAtual(heuristica);
+        simulador.setModo(ModoSimulacao.POR_EVENTOS);
+        // Cada simulação tem o seu leitor; o mapeamento do arquivo é compartilhado pelo sistema
+        LeitorTrafego leitor = trafego == null ? null : new LeitorTrafego(trafego, andares);
+        if (leitor != null) {
+            simulador.setFonteTrafego(leitor);
+        } else if (perfilDiario) {
+            simulador.setFonteTrafego(GeradorTrafego.diaTipico(simulador.getPredio(), taxa, new Random(semente), 0, minutos));
+        } else {
+            simulador.agendarChegadasAleatorias(0, minutos, taxa, new Random(semente));
+        }
+
+        long inicio = System.nanoTime();
+        try {
+            simulador.executarAte(minutos);
+        } finally {
+            if (leitor != null) leitor.close();
+        }
+        long duracaoMs = (System.nanoTime() - inicio) / 1_000_000;
+
+        return String.format(Locale.ROOT, "%d,%d,%d,%s,%d,%d,%d,%d,%.3f,%d,%d,%.3f,%.3f,%d,%d,%d",
+                andares, elevadores, capacidade, heuristica.name(), semente, minutos,
+                simulador.getPessoasGeradas(), simulador.getPessoasTransportadas(),
+                simulador.getTempoMedioEspera(), simulador.getPercentilEspera(95), simulador.getPercentilEspera(99),
+                simulador.getTempoMedioViagem(), simulador.getTempoMedioTotal(), simulador.getPercentilTotal(95),
+                simulador.getAndaresPercorridos(), duracaoMs);
+    }
+
+    private static int[] lerInteiros(String valor) {
+        String[] partes = valor.split(",");
+        int[] numeros = new int[partes.length];
+        for (int i = 0; i < partes.length; i++) {
+            numeros[i] = Integer.parseInt(partes[i].trim());
+        }
+        return numeros;
+    }
+}
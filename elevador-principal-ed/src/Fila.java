@@ -1,20 +1,25 @@
 import java.io.Serializable;
 
-public class Fila implements Serializable {
-    private Lista lista;
+public class Fila<T> implements Serializable {
+    private Lista<T> lista;
 
     public Fila() {
-        this.lista = new Lista();
+        this.lista = new Lista<>();
     }
 
-    public void enfileirar(Object elemento) {
+    public void enfileirar(T elemento) {
         lista.inserirFim(elemento);
     }
 
-    public Object desenfileirar() {
+    public T desenfileirar() {
         return lista.removerInicio();
     }
 
+    // Elemento na posição indicada (0 é o próximo a sair), sem removê-lo
+    public T get(int indice) {
+        return lista.get(indice);
+    }
+
     public boolean estaVazia() {
         return lista.estaVazia();
     }
@@ -23,7 +28,7 @@ public class Fila implements Serializable {
         return lista.getTamanho();
     }
     
-    public Lista getLista() {
+    public Lista<T> getLista() {
         return lista;
     }
 }
@@ -0,0 +1,16 @@
+/**
+ * Fonte de chegadas de passageiros consumida pelo Simulador minuto a minuto, como um
+ * cursor: a chegada atual é lida por proximoMinuto/proximaOrigem/proximoDestino e
+ * descartada por avancar. As chegadas devem vir em ordem não decrescente de minuto.
+ */
+public interface FonteTrafego {
+    // Minuto da próxima chegada, ou Integer.MAX_VALUE se não houver mais chegadas
+    int proximoMinuto();
+
+    int proximaOrigem();
+
+    int proximoDestino();
+
+    // Passa para a chegada seguinte
+    void avancar();
+}
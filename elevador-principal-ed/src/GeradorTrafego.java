@@ -0,0 +1,148 @@
+import java.util.Random;
+
+/**
+ * Gerador de tráfego por horário do dia. Cada minuto recebe um número de chegadas
+ * sorteado de uma distribuição de Poisson com a taxa da janela em vigor, e cada pessoa
+ * recebe origem e destino conforme a mistura de subida/descida/entre andares da janela,
+ * em tempo constante (sem percorrer os andares). Fora das janelas vale o perfil padrão.
+ *
+ * As chegadas são geradas em lote, um minuto de cada vez, só quando o Simulador consulta a
+ * próxima chegada (FonteTrafego); minutos sem chegadas são pulados, o que combina com o modo
+ * por eventos.
+ * Com a mesma semente o tráfego gerado é sempre o mesmo.
+ */
+public class GeradorTrafego implements FonteTrafego {
+    private static final int MINUTOS_DIA = 1440;
+    private static final double LIMITE_KNUTH = 30; // Acima disso a taxa é dividida em partes
+
+    private final int totalAndares;
+    private final Lista<JanelaTrafego> janelas;
+    private final JanelaTrafego padrao;
+    private final Random random;
+    private final int minutoFinal;
+
+    // Próximo minuto ainda não gerado e o lote do último minuto gerado
+    private int minutoGerado;
+    private int minutoLote;
+    private int[] origens = new int[16];
+    private int[] destinos = new int[16];
+    private int tamanhoLote;
+    private int posicaoLote;
+
+    // Gera chegadas de minutoInicial até minutoFinal (exclusivo)
+    public GeradorTrafego(int totalAndares, JanelaTrafego padrao, Random random, int minutoInicial, int minutoFinal) {
+        this.totalAndares = totalAndares;
+        this.janelas = new Lista<>();
+        this.padrao = padrao;
+        this.random = random;
+        this.minutoFinal = minutoFinal;
+        this.minutoGerado = minutoInicial;
+        this.minutoLote = minutoInicial - 1;
+    }
+
+    // Dia típico de escritório com os horários de pico do prédio: subida no pico da manhã,
+    // descida no pico da tarde, almoço misto e pouco movimento de madrugada
+    public static GeradorTrafego diaTipico(Predio predio, double pessoasPorMinuto, Random random,
+                                           int minutoInicial, int minutoFinal) {
+        GeradorTrafego gerador = new GeradorTrafego(predio.getQuantidadeAndares(),
+                new JanelaTrafego(0, MINUTOS_DIA - 1, pessoasPorMinuto, 0.2, 0.2), random, minutoInicial, minutoFinal);
+        gerador.adicionarJanela(new JanelaTrafego(predio.getInicioHorarioPico(), predio.getFimHorarioPico(),
+                pessoasPorMinuto * 3, 0.8, 0.1));
+        gerador.adicionarJanela(new JanelaTrafego(predio.getInicioHorarioPicoTarde(), predio.getFimHorarioPicoTarde(),
+                pessoasPorMinuto * 3, 0.1, 0.8));
+        gerador.adicionarJanela(new JanelaTrafego(690, 810, pessoasPorMinuto * 1.5, 0.4, 0.4)); // 11:30 às 13:30
+        gerador.adicionarJanela(new JanelaTrafego(0, 359, pessoasPorMinuto * 0.1, 0.2, 0.2));   // Madrugada
+        return gerador;
+    }
+
+    // Janelas adicionadas antes têm prioridade quando se sobrepõem
+    public void adicionarJanela(JanelaTrafego janela) {
+        janelas.inserirFim(janela);
+    }
+
+    private void gerarLote(int minuto) {
+        minutoLote = minuto;
+        tamanhoLote = 0;
+        posicaoLote = 0;
+        if (totalAndares < 2) return;
+
+        JanelaTrafego janela = janelaDoMinuto(minuto % MINUTOS_DIA);
+        int quantidade = sortearPoisson(janela.getPessoasPorMinuto());
+        if (quantidade > origens.length) {
+            origens = new int[Math.max(quantidade, origens.length * 2)];
+            destinos = new int[origens.length];
+        }
+        for (int i = 0; i < quantidade; i++) {
+            double sorteio = random.nextDouble();
+            if (sorteio < janela.getFracaoSubida()) {
+                origens[i] = 0;
+                destinos[i] = 1 + random.nextInt(totalAndares - 1);
+            } else if (sorteio < janela.getFracaoSubida() + janela.getFracaoDescida()) {
+                origens[i] = 1 + random.nextInt(totalAndares - 1);
+                destinos[i] = 0;
+            } else {
+                // Destino sorteado entre os outros andares, sem repetir o sorteio
+                origens[i] = random.nextInt(totalAndares);
+                int destino = random.nextInt(totalAndares - 1);
+                destinos[i] = destino >= origens[i] ? destino + 1 : destino;
+            }
+        }
+        tamanhoLote = quantidade;
+    }
+
+    private JanelaTrafego janelaDoMinuto(int minutoDoDia) {
+        for (int i = 0; i < janelas.getTamanho(); i++) {
+            if (janelas.get(i).contem(minutoDoDia)) {
+                return janelas.get(i);
+            }
+        }
+        return padrao;
+    }
+
+    // Método de Knuth; taxas altas são divididas em parcelas (a soma de Poisson é Poisson)
+    private int sortearPoisson(double taxa) {
+        int total = 0;
+        while (taxa > 0) {
+            double parcela = Math.min(taxa, LIMITE_KNUTH);
+            taxa -= parcela;
+            double limite = Math.exp(-parcela);
+            double produto = random.nextDouble();
+            while (produto > limite) {
+                total++;
+                produto *= random.nextDouble();
+            }
+        }
+        return total;
+    }
+
+    // Gera minutos até encontrar um lote com chegadas ou chegar ao fim
+    private boolean haChegada() {
+        while (posicaoLote == tamanhoLote) {
+            if (minutoGerado >= minutoFinal) return false;
+            gerarLote(minutoGerado++);
+        }
+        return true;
+    }
+
+    @Override
+    public int proximoMinuto() {
+        return haChegada() ? minutoLote : Integer.MAX_VALUE;
+    }
+
+    @Override
+    public int proximaOrigem() {
+        return origens[posicaoLote];
+    }
+
+    @Override
+    public int proximoDestino() {
+        return destinos[posicaoLote];
+    }
+
+    @Override
+    public void avancar() {
+        if (haChegada()) {
+            posicaoLote++;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Grava o rastro de tráfego de uma simulação: cada pessoa que entra no prédio vira um
+ * registro de 12 bytes (minuto, andar de origem, andar de destino), na ordem em que
+ * chegou. O arquivo pode ser reproduzido com LeitorTrafego para repetir exatamente o
+ * mesmo dia com outra heurística.
+ *
+ * Formato: número mágico "ELTR", versão e quantidade de andares do prédio (4 bytes cada) e
+ * os registros, sem contagem no cabeçalho (a quantidade vem do tamanho do arquivo).
+ */
+public class GravadorTrafego implements AutoCloseable {
+    public static final int NUMERO_MAGICO = 0x454C5452; // "ELTR"
+    public static final int VERSAO = 2;
+    public static final int TAMANHO_CABECALHO = 12;
+    public static final int TAMANHO_REGISTRO = 12;
+
+    private final FileChannel canal;
+    private final ByteBuffer buffer = ByteBuffer.allocate(TAMANHO_REGISTRO * 8192);
+    private long registros;
+
+    public GravadorTrafego(String nomeArquivo, int quantidadeAndares) throws IOException {
+        this.canal = FileChannel.open(Paths.get(nomeArquivo), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        buffer.putInt(NUMERO_MAGICO).putInt(VERSAO).putInt(quantidadeAndares);
+    }
+
+    public synchronized void registrar(int minuto, int andarOrigem, int andarDestino) throws IOException {
+        if (buffer.remaining() < TAMANHO_REGISTRO) {
+            esvaziar();
+        }
+        buffer.putInt(minuto).putInt(andarOrigem).putInt(andarDestino);
+        registros++;
+    }
+
+    private void esvaziar() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    public synchronized long getRegistros() {
+        return registros;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        esvaziar();
+        canal.close();
+    }
+}
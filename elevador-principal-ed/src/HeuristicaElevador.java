@@ -19,7 +19,34 @@ public enum HeuristicaElevador implements Serializable {
      * Modelo 3: Otimização do consumo de energia, minimizando deslocamentos desnecessários e
      * ajustando os ciclos de operação conforme os horários de pico e de menor movimentação.
      */
-    OTIMIZACAO_ENERGIA;
+    OTIMIZACAO_ENERGIA,
+    
+    /**
+     * Modelo 4: Atribuição global, resolvendo juntas todas as chamadas em aberto a cada minuto
+     * pela atribuição de menor tempo estimado total entre chamadas e elevadores.
+     */
+    ATRIBUICAO_GLOBAL;
+    
+    // Aceita o número do modelo (1 a 4) ou o nome da heurística (ex.: OTIMIZACAO_ENERGIA)
+    public static HeuristicaElevador ler(String valor) {
+        HeuristicaElevador[] heuristicas = values();
+        String texto = valor.trim();
+        if (!texto.isEmpty() && texto.chars().allMatch(Character::isDigit)) {
+            int modelo = texto.length() > 9 ? Integer.MAX_VALUE : Integer.parseInt(texto);
+            if (modelo < 1 || modelo > heuristicas.length) {
+                throw new IllegalArgumentException("Heurística inválida: " + valor
+                                                   + " (use os modelos de 1 a " + heuristicas.length + ")");
+            }
+            return heuristicas[modelo - 1];
+        }
+        for (HeuristicaElevador heuristica : heuristicas) {
+            if (heuristica.name().equalsIgnoreCase(texto)) {
+                return heuristica;
+            }
+        }
+        throw new IllegalArgumentException("Heurística desconhecida: " + valor
+                                           + " (use o número do modelo, de 1 a " + heuristicas.length + ", ou o nome)");
+    }
     
     @Override
     public String toString() {
@@ -30,6 +57,8 @@ public enum HeuristicaElevador implements Serializable {
                 return "Modelo 2: Otimização do tempo de espera";
             case OTIMIZACAO_ENERGIA:
                 return "Modelo 3: Otimização do consumo de energia";
+            case ATRIBUICAO_GLOBAL:
+                return "Modelo 4: Atribuição global das chamadas";
             default:
                 return "Desconhecido";
         }
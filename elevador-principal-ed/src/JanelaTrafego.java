@@ -0,0 +1,53 @@
+import java.io.Serializable;
+
+/**
+ * Intervalo do dia (em minutos desde a meia-noite, inclusivo como os horários de pico do
+ * Predio) com uma taxa média de chegadas e a mistura de padrões de tráfego: subida (do
+ * térreo para os andares), descida (dos andares para o térreo) e entre andares (o resto).
+ */
+public class JanelaTrafego implements Serializable {
+    private final int inicio;
+    private final int fim;
+    private final double pessoasPorMinuto;
+    private final double fracaoSubida;
+    private final double fracaoDescida;
+
+    public JanelaTrafego(int inicio, int fim, double pessoasPorMinuto, double fracaoSubida, double fracaoDescida) {
+        if (fracaoSubida < 0 || fracaoDescida < 0 || fracaoSubida + fracaoDescida > 1) {
+            throw new IllegalArgumentException("Frações de subida e descida inválidas");
+        }
+        this.inicio = inicio;
+        this.fim = fim;
+        this.pessoasPorMinuto = pessoasPorMinuto;
+        this.fracaoSubida = fracaoSubida;
+        this.fracaoDescida = fracaoDescida;
+    }
+
+    public boolean contem(int minutoDoDia) {
+        return minutoDoDia >= inicio && minutoDoDia <= fim;
+    }
+
+    public int getInicio() {
+        return inicio;
+    }
+
+    public int getFim() {
+        return fim;
+    }
+
+    public double getPessoasPorMinuto() {
+        return pessoasPorMinuto;
+    }
+
+    public double getFracaoSubida() {
+        return fracaoSubida;
+    }
+
+    public double getFracaoDescida() {
+        return fracaoDescida;
+    }
+
+    public double getFracaoEntreAndares() {
+        return 1 - fracaoSubida - fracaoDescida;
+    }
+}
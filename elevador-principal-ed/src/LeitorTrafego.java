@@ -0,0 +1,97 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reproduz um rastro gravado por GravadorTrafego como FonteTrafego. O arquivo é lido por
+ * mapeamento em memória, uma janela de cada vez, de modo que rastros grandes não precisam
+ * caber na memória do processo e a leitura não faz cópias. O rastro só é aceito por um
+ * prédio com a mesma quantidade de andares em que foi gravado.
+ */
+public class LeitorTrafego implements FonteTrafego, AutoCloseable {
+    // Janela de mapeamento: um número inteiro de registros (cerca de 48 MB)
+    private static final long TAMANHO_JANELA = (long) GravadorTrafego.TAMANHO_REGISTRO << 22;
+
+    private final FileChannel canal;
+    private final long fim;
+    private long inicioJanela;
+    private MappedByteBuffer janela;
+
+    private int minuto;
+    private int origem;
+    private int destino;
+
+    // quantidadeAndares é a do prédio que vai reproduzir o rastro
+    public LeitorTrafego(String nomeArquivo, int quantidadeAndares) throws IOException {
+        this.canal = FileChannel.open(Paths.get(nomeArquivo), StandardOpenOption.READ);
+        long tamanho = canal.size();
+        MappedByteBuffer cabecalho = canal.map(FileChannel.MapMode.READ_ONLY, 0,
+                Math.min(tamanho, GravadorTrafego.TAMANHO_CABECALHO));
+        if (tamanho < GravadorTrafego.TAMANHO_CABECALHO || cabecalho.getInt() != GravadorTrafego.NUMERO_MAGICO) {
+            canal.close();
+            throw new IOException("Arquivo não é um rastro de tráfego");
+        }
+        int versao = cabecalho.getInt();
+        if (versao != GravadorTrafego.VERSAO) {
+            canal.close();
+            throw new IOException("Versão de rastro não suportada: " + versao);
+        }
+        int andaresGravados = cabecalho.getInt();
+        if (andaresGravados != quantidadeAndares) {
+            canal.close();
+            throw new IOException("Rastro gravado em um prédio de " + andaresGravados
+                                  + " andares não pode ser reproduzido em um de " + quantidadeAndares);
+        }
+        // Um registro incompleto no fim (gravação interrompida) é ignorado
+        long registros = (tamanho - GravadorTrafego.TAMANHO_CABECALHO) / GravadorTrafego.TAMANHO_REGISTRO;
+        this.fim = GravadorTrafego.TAMANHO_CABECALHO + registros * GravadorTrafego.TAMANHO_REGISTRO;
+        this.inicioJanela = GravadorTrafego.TAMANHO_CABECALHO;
+        mapearJanela();
+        avancar();
+    }
+
+    private void mapearJanela() throws IOException {
+        janela = canal.map(FileChannel.MapMode.READ_ONLY, inicioJanela, Math.min(TAMANHO_JANELA, fim - inicioJanela));
+    }
+
+    @Override
+    public int proximoMinuto() {
+        return minuto;
+    }
+
+    @Override
+    public int proximaOrigem() {
+        return origem;
+    }
+
+    @Override
+    public int proximoDestino() {
+        return destino;
+    }
+
+    @Override
+    public void avancar() {
+        if (!janela.hasRemaining()) {
+            inicioJanela += janela.capacity();
+            if (inicioJanela >= fim) {
+                minuto = Integer.MAX_VALUE;
+                return;
+            }
+            try {
+                mapearJanela();
+            } catch (IOException e) {
+                throw new IllegalStateException("Falha ao ler o rastro de tráfego", e);
+            }
+        }
+        minuto = janela.getInt();
+        origem = janela.getInt();
+        destino = janela.getInt();
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+}
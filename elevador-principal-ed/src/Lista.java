@@ -1,69 +1,103 @@
 import java.io.Serializable;
+import java.util.Arrays;
 
-public class Lista implements Serializable {
-    private Ponteiro inicio;
-    private Ponteiro fim;
+// Lista sobre um array circular: acesso por índice em O(1) e inserção/remoção
+// nas duas pontas sem alocar um nó por elemento.
+public class Lista<T> implements Serializable {
+    private Object[] elementos;
+    private int inicio; // Posição do primeiro elemento no array
     private int tamanho;
 
     public Lista() {
-        this.inicio = null;
-        this.fim = null;
+        this(8);
+    }
+
+    public Lista(int capacidadeInicial) {
+        this.elementos = new Object[Math.max(1, capacidadeInicial)];
+        this.inicio = 0;
         this.tamanho = 0;
     }
 
-    public void inserirInicio(Object elemento) {
-        Ponteiro novoPonteiro = new Ponteiro(elemento);
-        if (inicio == null) {
-            inicio = novoPonteiro;
-            fim = novoPonteiro;
-        } else {
-            novoPonteiro.setProximo(inicio);
-            inicio = novoPonteiro;
-        }
+    public void inserirInicio(T elemento) {
+        garantirCapacidade();
+        inicio = inicio == 0 ? elementos.length - 1 : inicio - 1;
+        elementos[inicio] = elemento;
         tamanho++;
     }
 
-    public void inserirFim(Object elemento) {
-        Ponteiro novoPonteiro = new Ponteiro(elemento);
-        if (fim == null) {
-            inicio = novoPonteiro;
-            fim = novoPonteiro;
-        } else {
-            fim.setProximo(novoPonteiro);
-            fim = novoPonteiro;
-        }
+    public void inserirFim(T elemento) {
+        garantirCapacidade();
+        elementos[posicao(tamanho)] = elemento;
         tamanho++;
     }
 
-    public Object removerInicio() {
-        if (inicio == null) {
+    @SuppressWarnings("unchecked")
+    public T removerInicio() {
+        if (tamanho == 0) {
             return null;
         }
         
-        Object elemento = inicio.getElemento();
-        inicio = inicio.getProximo();
-        
-        if (inicio == null) {
-            fim = null;
+        T elemento = (T) elementos[inicio];
+        elementos[inicio] = null;
+        inicio = inicio + 1 == elementos.length ? 0 : inicio + 1;
+        tamanho--;
+        return elemento;
+    }
+
+    // Remove o elemento da posição indicada, deslocando os seguintes
+    public T remover(int indice) {
+        T elemento = get(indice);
+        for (int i = indice; i < tamanho - 1; i++) {
+            elementos[posicao(i)] = elementos[posicao(i + 1)];
         }
-        
+        elementos[posicao(tamanho - 1)] = null;
         tamanho--;
         return elemento;
     }
 
+    @SuppressWarnings("unchecked")
+    public T get(int indice) {
+        if (indice < 0 || indice >= tamanho) {
+            throw new IndexOutOfBoundsException("Índice " + indice + ", tamanho " + tamanho);
+        }
+        return (T) elementos[posicao(indice)];
+    }
+
+    public void set(int indice, T elemento) {
+        if (indice < 0 || indice >= tamanho) {
+            throw new IndexOutOfBoundsException("Índice " + indice + ", tamanho " + tamanho);
+        }
+        elementos[posicao(indice)] = elemento;
+    }
+
+    public void limpar() {
+        Arrays.fill(elementos, null);
+        inicio = 0;
+        tamanho = 0;
+    }
+
     public boolean estaVazia() {
-        return inicio == null;
+        return tamanho == 0;
     }
 
     public int getTamanho() {
         return tamanho;
     }
 
-    public Ponteiro getInicio() {
-        return inicio;
+    private int posicao(int indice) {
+        int posicao = inicio + indice;
+        return posicao >= elementos.length ? posicao - elementos.length : posicao;
     }
 
-    public Ponteiro getFim() {
-        return fim;
+    private void garantirCapacidade() {
+        if (tamanho < elementos.length) return;
+
+        // Copiar os elementos em ordem para um array com o dobro do tamanho
+        Object[] novos = new Object[elementos.length * 2];
+        for (int i = 0; i < tamanho; i++) {
+            novos[i] = elementos[posicao(i)];
+        }
+        elementos = novos;
+        inicio = 0;
     }
 }
@@ -0,0 +1,30 @@
+import java.io.Serializable;
+
+/**
+ Enum que representa como o Simulador avança o tempo em executarAte.
+ */
+public enum ModoSimulacao implements Serializable {
+    /**
+     * Atualiza o prédio a cada minuto simulado, mesmo quando nada acontece.
+     */
+    POR_MINUTO,
+    
+    /**
+     * Avança direto para o próximo evento (chegada de pessoa, porta fechando, andar
+     * alcançado), pulando os intervalos ociosos sem percorrer andares e elevadores.
+     * Produz as mesmas estatísticas do modo por minuto para as mesmas entradas.
+     */
+    POR_EVENTOS;
+    
+    @Override
+    public String toString() {
+        switch (this) {
+            case POR_MINUTO:
+                return "Por minuto";
+            case POR_EVENTOS:
+                return "Por eventos";
+            default:
+                return "Desconhecido";
+        }
+    }
+}
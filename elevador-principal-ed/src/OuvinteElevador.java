@@ -0,0 +1,21 @@
+/**
+ * Recebe os eventos de um elevador durante a simulação. Por padrão nenhum ouvinte é
+ * registrado, e o laço da simulação não monta mensagens nem aloca objetos para eventos.
+ * Os métodos têm implementação vazia para que o ouvinte trate apenas o que precisar.
+ */
+public interface OuvinteElevador {
+
+    // O elevador avançou um andar (já está no novo andar atual)
+    default void elevadorMoveu(Elevador elevador, int minutoSimulado) {
+    }
+
+    // O elevador parou em um andar para embarque/desembarque
+    default void elevadorParou(Elevador elevador, int minutoSimulado) {
+    }
+
+    default void pessoaEmbarcou(Elevador elevador, Pessoa pessoa, int minutoSimulado) {
+    }
+
+    default void pessoaDesembarcou(Elevador elevador, Pessoa pessoa, int minutoSimulado) {
+    }
+}
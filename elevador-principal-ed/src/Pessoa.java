@@ -1,3 +1,6 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
 
 public class Pessoa implements Serializable {
@@ -5,20 +8,21 @@ public class Pessoa implements Serializable {
     private int andarOrigem;
     private int andarDestino;
     private boolean dentroElevador;
-    private int tempoEspera;
-    private int tempoViagem;
-    private int tempoTotal;
     private int minutoChegada;
+    private int minutoEmbarque;
+    // Minutos em movimento do elevador no embarque; a viagem é a diferença no desembarque
+    private int marcoViagem;
+    private int tempoViagem;
 
     public Pessoa(int id, int origem, int destino, int minutoAtual) {
         this.id = id;
         this.andarOrigem = origem;
         this.andarDestino = destino;
         this.dentroElevador = false;
-        this.tempoEspera = 0;
-        this.tempoViagem = 0;
-        this.tempoTotal = 0;
         this.minutoChegada = minutoAtual;
+        this.minutoEmbarque = -1;
+        this.marcoViagem = 0;
+        this.tempoViagem = 0;
     }
 
     public int getId() {
@@ -37,44 +41,67 @@ public class Pessoa implements Serializable {
         return dentroElevador;
     }
 
-    public void entrarElevador() {
+    // minutosEmMovimento é o contador de minutos em movimento do elevador (Elevador.getMinutosEmMovimento)
+    public void entrarElevador(int minutoAtual, int minutosEmMovimento) {
         this.dentroElevador = true;
+        this.minutoEmbarque = minutoAtual;
+        this.marcoViagem = minutosEmMovimento;
     }
 
-    public void sairElevador() {
+    public void sairElevador(int minutosEmMovimento) {
         this.dentroElevador = false;
-        this.tempoTotal = this.tempoEspera + this.tempoViagem;
-    }
-    
-    public void incrementarTempoEspera() {
-        if (!dentroElevador) {
-            tempoEspera++;
-        }
-    }
-    
-    public void incrementarTempoViagem() {
-        if (dentroElevador) {
-            tempoViagem++;
-        }
+        this.tempoViagem = minutosEmMovimento - marcoViagem;
     }
     
+    // Minutos de espera, contando o minuto de chegada e o de embarque
     public int getTempoEspera() {
-        return tempoEspera;
+        return minutoEmbarque < 0 ? 0 : minutoEmbarque - minutoChegada + 1;
     }
     
-    public void setTempoEspera(int tempoEspera) {
-        this.tempoEspera = tempoEspera;
+    // Espera até o minuto informado, para quem ainda não embarcou
+    public int getTempoEspera(int minutoAtual) {
+        return minutoEmbarque < 0 ? Math.max(0, minutoAtual - minutoChegada + 1) : getTempoEspera();
     }
     
+    // Minutos em que o elevador esteve em movimento com a pessoa dentro (após o desembarque)
     public int getTempoViagem() {
         return tempoViagem;
     }
     
     public int getTempoTotal() {
-        return tempoTotal;
+        return getTempoEspera() + tempoViagem;
     }
     
     public int getMinutoChegada() {
         return minutoChegada;
     }
+    
+    public int getMinutoEmbarque() {
+        return minutoEmbarque;
+    }
+    
+    // Estado no formato de SnapshotSimulacao
+    public void gravarEstado(DataOutput out) throws IOException {
+        SnapshotSimulacao.escreverInt(out, id);
+        SnapshotSimulacao.escreverInt(out, andarOrigem);
+        SnapshotSimulacao.escreverInt(out, andarDestino);
+        out.writeBoolean(dentroElevador);
+        SnapshotSimulacao.escreverInt(out, minutoChegada);
+        SnapshotSimulacao.escreverInt(out, minutoEmbarque);
+        SnapshotSimulacao.escreverInt(out, marcoViagem);
+        SnapshotSimulacao.escreverInt(out, tempoViagem);
+    }
+    
+    public static Pessoa lerEstado(DataInput in) throws IOException {
+        int id = SnapshotSimulacao.lerInt(in);
+        int origem = SnapshotSimulacao.lerInt(in);
+        int destino = SnapshotSimulacao.lerInt(in);
+        Pessoa pessoa = new Pessoa(id, origem, destino, 0);
+        pessoa.dentroElevador = in.readBoolean();
+        pessoa.minutoChegada = SnapshotSimulacao.lerInt(in);
+        pessoa.minutoEmbarque = SnapshotSimulacao.lerInt(in);
+        pessoa.marcoViagem = SnapshotSimulacao.lerInt(in);
+        pessoa.tempoViagem = SnapshotSimulacao.lerInt(in);
+        return pessoa;
+    }
 }
@@ -1,14 +1,14 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.Collections;
 //import java.util.Comparator;
-import java.util.List;
 /* */
 public class Predio extends EntidadeSimulavel implements Serializable {
     private CentralDeControle central;
-    private Lista andares;
+    private Andar[] andares; // Indexado pelo número do andar
     private HeuristicaElevador heuristicaAtual;
-    private List<Integer> chamadas; // Lista de chamadas pendentes para o modelo FCFS
+    private RegistroChamadas registroChamadas; // Chamadas abertas por andar e sentido, com o elevador atribuído
     
     // Parâmetros para o modelo de otimização de energia
     private boolean horarioPico;
@@ -20,33 +20,30 @@ public class Predio extends EntidadeSimulavel implements Serializable {
     // Estatísticas
     private int pessoasGeradas;
     private int pessoasTransportadas;
-    private int tempoTotalEspera;
-    private int tempoTotalViagem;
-    private int tempoTotalTransporte;
-    private List<Integer> temposEspera;
-    private List<Integer> temposViagem;
-    private List<Integer> temposTotal;
+    private EstatisticaTempos temposEspera;
+    private EstatisticaTempos temposViagem;
+    private EstatisticaTempos temposTotal;
+    // Auxiliares da atribuição global (Modelo 4), criados no primeiro uso
+    private transient AtribuicaoHungara atribuicaoHungara;
+    private transient Lista<RegistroChamadas.Chamada> chamadasPendentes;
 
     public Predio(int quantidadeAndares, int quantidadeElevadores, int capacidadeElevador) {
         central = new CentralDeControle(quantidadeElevadores, capacidadeElevador);
-        andares = new Lista();
+        andares = new Andar[quantidadeAndares];
         for (int i = 0; i < quantidadeAndares; i++) {
-            andares.inserirFim(new Andar(i));
+            andares[i] = new Andar(i);
         }
         
         // Inicializar com a heurística padrão
         heuristicaAtual = HeuristicaElevador.SEM_HEURISTICA;
-        chamadas = new ArrayList<>();
+        registroChamadas = new RegistroChamadas(quantidadeAndares);
         
         // Inicializar estatísticas
         pessoasGeradas = 0;
         pessoasTransportadas = 0;
-        tempoTotalEspera = 0;
-        tempoTotalViagem = 0;
-        tempoTotalTransporte = 0;
-        temposEspera = new ArrayList<>();
-        temposViagem = new ArrayList<>();
-        temposTotal = new ArrayList<>();
+        temposEspera = new EstatisticaTempos();
+        temposViagem = new EstatisticaTempos();
+        temposTotal = new EstatisticaTempos();
     }
 
     @Override
@@ -57,21 +54,48 @@ public class Predio extends EntidadeSimulavel implements Serializable {
         // Atualizar a central de controle
         central.atualizar(minutoSimulado);
         
-        // Atualizar o tempo de espera das pessoas em cada andar
-        atualizarTempoEsperaPessoas();
-        
         // Verificar se há pessoas aguardando em cada andar
-        Ponteiro pAndar = andares.getInicio();
-        while (pAndar != null) {
-            Andar andar = (Andar) pAndar.getElemento();
+        for (Andar andar : andares) {
             verificarChamadasElevador(andar, minutoSimulado);
-            pAndar = pAndar.getProximo();
         }
         
+        // Despachar só as chamadas novas ou cuja atribuição deixou de valer
+        despacharChamadas(minutoSimulado);
+        
         // Atualizar estatísticas dos elevadores
         atualizarEstatisticasElevadores();
     }
     
+    // Quantos minutos a partir de agora podem ser pulados sem mudar nada além de contadores:
+    // nenhum andar com chamada ou pessoa aguardando e nenhum elevador prestes a agir.
+    public int minutosOciosos() {
+        if (!registroChamadas.estaVazio()) return 0;
+        for (Andar andar : andares) {
+            PainelElevador painel = andar.getPainel();
+            if (painel.isBotaoSubirAtivado() || painel.isBotaoDescerAtivado() ||
+                andar.temPessoasAguardando()) {
+                return 0;
+            }
+        }
+        
+        int minutos = Integer.MAX_VALUE;
+        Lista<Elevador> elevadores = central.getElevadores();
+        for (int i = 0; i < elevadores.getTamanho(); i++) {
+            minutos = Math.min(minutos, elevadores.get(i).minutosOciosos());
+        }
+        return minutos;
+    }
+    
+    // Aplica de uma vez o efeito de 'minutos' atualizações ociosas a partir de minutoInicial.
+    // Só pode ser usado com minutos <= minutosOciosos().
+    public void avancarOcioso(int minutoInicial, int minutos) {
+        atualizarHorarioPico(minutoInicial + minutos - 1);
+        Lista<Elevador> elevadores = central.getElevadores();
+        for (int i = 0; i < elevadores.getTamanho(); i++) {
+            elevadores.get(i).avancarOcioso(minutoInicial + minutos - 1, minutos);
+        }
+    }
+    
     private void atualizarHorarioPico(int minutoSimulado) {
         // Converter minuto simulado para hora do dia (assumindo que começa à meia-noite)
         int minutosDoDia = minutoSimulado % 1440; // 1440 = 24 horas * 60 minutos
@@ -81,239 +105,191 @@ public class Predio extends EntidadeSimulavel implements Serializable {
                       (minutosDoDia >= inicioHorarioPicoTarde && minutosDoDia <= fimHorarioPicoTarde);
     }
     
-    private void atualizarTempoEsperaPessoas() {
-        Ponteiro pAndar = andares.getInicio();
-        while (pAndar != null) {
-            Andar andar = (Andar) pAndar.getElemento();
-            Fila pessoasAguardando = andar.getPessoasAguardando();
-            
-            if (!pessoasAguardando.estaVazia()) {
-                Ponteiro pPessoa = pessoasAguardando.getLista().getInicio();
-                while (pPessoa != null) {
-                    Pessoa pessoa = (Pessoa) pPessoa.getElemento();
-                    pessoa.incrementarTempoEspera();
-                    pPessoa = pPessoa.getProximo();
-                }
-            }
-            
-            pAndar = pAndar.getProximo();
-        }
-    }
-
     private void verificarChamadasElevador(Andar andar, int minutoSimulado) {
         PainelElevador painel = andar.getPainel();
         
-        // Se houver botões ativados, notificar a central de controle
+        // Se houver botões ativados, embarcar quem puder nos elevadores parados no andar
+        // (o andar apaga cada botão quando a fila do sentido esvazia)
         if (painel.isBotaoSubirAtivado() || painel.isBotaoDescerAtivado()) {
-            // Verificar se há elevadores no andar para embarcar pessoas
             embarcarPessoasEmElevadoresNoAndar(andar, minutoSimulado);
+        }
+        
+        // As chamadas do andar acompanham os botões: abrem ao acender e fecham ao apagar
+        atualizarChamada(andar.getNumero(), true, painel.isBotaoSubirAtivado());
+        atualizarChamada(andar.getNumero(), false, painel.isBotaoDescerAtivado());
+    }
+    
+    private void atualizarChamada(int andar, boolean subindo, boolean botaoAtivado) {
+        if (botaoAtivado) {
+            registroChamadas.abrir(andar, subindo);
+        } else {
+            registroChamadas.fechar(andar, subindo);
+        }
+    }
+    
+    // Percorre as chamadas abertas da mais antiga para a mais nova e chama um elevador só para
+    // as que ainda não têm um ou cuja atribuição deixou de valer (RegistroChamadas.precisaDespacho)
+    private void despacharChamadas(int minutoSimulado) {
+        if (heuristicaAtual == HeuristicaElevador.ATRIBUICAO_GLOBAL) {
+            despacharChamadasGlobal(minutoSimulado);
+            return;
+        }
+        for (RegistroChamadas.Chamada chamada = registroChamadas.getPrimeira(); chamada != null;
+             chamada = chamada.getProxima()) {
+            if (!registroChamadas.precisaDespacho(chamada, minutoSimulado)) continue;
             
-            // Se ainda houver pessoas aguardando, chamar elevador
-            if (!andar.getPessoasAguardando().estaVazia()) {
-                // Adicionar chamada à lista de chamadas pendentes (para o modelo FCFS)
-                if (heuristicaAtual == HeuristicaElevador.SEM_HEURISTICA && !chamadas.contains(andar.getNumero())) {
-                    chamadas.add(andar.getNumero());
-                }
-                
-                // Chamar elevador de acordo com a heurística selecionada
-                switch (heuristicaAtual) {
-                    case SEM_HEURISTICA:
-                        chamarElevadorFCFS();
-                        break;
-                    case OTIMIZACAO_TEMPO_ESPERA:
-                        chamarElevadorOtimizacaoTempoEspera(andar, painel.isBotaoSubirAtivado(), painel.isBotaoDescerAtivado());
-                        break;
-                    case OTIMIZACAO_ENERGIA:
-                        chamarElevadorOtimizacaoEnergia(andar, painel.isBotaoSubirAtivado(), painel.isBotaoDescerAtivado(), minutoSimulado);
-                        break;
-                }
-            } else {
-                // Se não houver mais pessoas aguardando, resetar os botões
-                painel.resetar();
-                // Remover da lista de chamadas pendentes
-                chamadas.remove(Integer.valueOf(andar.getNumero()));
+            Andar andar = andares[chamada.getAndar()];
+            Elevador elevador = null;
+            switch (heuristicaAtual) {
+                case SEM_HEURISTICA:
+                    elevador = chamarElevadorFCFS(chamada.getAndar());
+                    // Sem elevador livre, as chamadas seguintes esperam a vez desta
+                    if (elevador == null) return;
+                    break;
+                case OTIMIZACAO_TEMPO_ESPERA:
+                    elevador = chamarElevadorOtimizacaoTempoEspera(andar, chamada.isSubindo(), !chamada.isSubindo());
+                    break;
+                case OTIMIZACAO_ENERGIA:
+                    elevador = chamarElevadorOtimizacaoEnergia(andar, chamada.isSubindo(), !chamada.isSubindo(), minutoSimulado);
+                    break;
+            }
+            registroChamadas.atribuir(chamada, elevador, minutoSimulado);
+        }
+    }
+    
+    // Modelo 4: Atribuição global. As chamadas que precisam de despacho neste minuto são
+    // resolvidas juntas, pela atribuição de menor soma de tempos estimados de chegada entre
+    // chamadas e elevadores, com no máximo uma chamada nova por elevador. As chamadas que
+    // ficarem sem elevador (mais chamadas que elevadores) voltam ao despacho no próximo minuto.
+    private void despacharChamadasGlobal(int minutoSimulado) {
+        if (atribuicaoHungara == null) {
+            atribuicaoHungara = new AtribuicaoHungara();
+            chamadasPendentes = new Lista<>();
+        }
+        chamadasPendentes.limpar();
+        for (RegistroChamadas.Chamada chamada = registroChamadas.getPrimeira(); chamada != null;
+             chamada = chamada.getProxima()) {
+            if (registroChamadas.precisaDespacho(chamada, minutoSimulado)) {
+                chamadasPendentes.inserirFim(chamada);
+            }
+        }
+        Lista<Elevador> elevadores = central.getElevadores();
+        int quantidadeChamadas = chamadasPendentes.getTamanho();
+        int quantidadeElevadores = elevadores.getTamanho();
+        if (quantidadeChamadas == 0 || quantidadeElevadores == 0) return;
+        
+        atribuicaoHungara.preparar(quantidadeChamadas, quantidadeElevadores);
+        for (int i = 0; i < quantidadeChamadas; i++) {
+            RegistroChamadas.Chamada chamada = chamadasPendentes.get(i);
+            Andar andar = andares[chamada.getAndar()];
+            for (int j = 0; j < quantidadeElevadores; j++) {
+                atribuicaoHungara.definirCusto(i, j, calcularTempoEstimadoChegada(
+                        elevadores.get(j), andar, chamada.isSubindo()));
             }
         }
+        atribuicaoHungara.resolver();
+        
+        for (int i = 0; i < quantidadeChamadas; i++) {
+            int indiceElevador = atribuicaoHungara.getColuna(i);
+            if (indiceElevador < 0) continue;
+            RegistroChamadas.Chamada chamada = chamadasPendentes.get(i);
+            Elevador elevador = elevadores.get(indiceElevador);
+            elevador.chamarPara(chamada.getAndar());
+            registroChamadas.atribuir(chamada, elevador, minutoSimulado);
+        }
     }
     
     private void embarcarPessoasEmElevadoresNoAndar(Andar andar, int minutoSimulado) {
-        Lista elevadores = central.getElevadores();
-        Ponteiro pElevador = elevadores.getInicio();
+        Lista<Elevador> elevadores = central.getElevadores();
         
-        while (pElevador != null) {
-            Elevador elevador = (Elevador) pElevador.getElemento();
+        for (int i = 0; i < elevadores.getTamanho(); i++) {
+            Elevador elevador = elevadores.get(i);
             
             // Se o elevador estiver neste andar e não estiver em movimento
             if (elevador.getAndarAtual() == andar.getNumero() && !elevador.estaEmMovimento()) {
                 // Embarcar pessoas que vão na mesma direção do elevador
                 embarcarPessoasNoElevador(andar, elevador, minutoSimulado);
             }
-            
-            pElevador = pElevador.getProximo();
         }
     }
     
     private void embarcarPessoasNoElevador(Andar andar, Elevador elevador, int minutoSimulado) {
-        Fila pessoasAguardando = andar.getPessoasAguardando();
-        PainelElevador painel = andar.getPainel();
-        
-        if (pessoasAguardando.estaVazia()) return;
-        
-        // Criar uma lista temporária para as pessoas que não embarcarem
-        Lista pessoasRestantes = new Lista();
-        
-        while (!pessoasAguardando.estaVazia() && elevador.temEspacoDisponivel()) {
-            Pessoa pessoa = (Pessoa) pessoasAguardando.desenfileirar();
+        // Com o elevador parado embarca quem chegou primeiro, em qualquer sentido; se ele partir
+        // durante o embarque, só a fila do sentido dele continua embarcando
+        while (elevador.temEspacoDisponivel()) {
+            Pessoa pessoa = elevador.estaEmMovimento() ? andar.removerPessoa(elevador.estaSubindo())
+                                                       : andar.removerPrimeiraPessoa();
+            if (pessoa == null) break;
             
-            // Verificar se a pessoa vai na mesma direção do elevador ou se o elevador está parado
-            boolean mesmaDir = (pessoa.getAndarDestino() > andar.getNumero() && elevador.estaSubindo()) ||
-                              (pessoa.getAndarDestino() < andar.getNumero() && !elevador.estaSubindo());
+            // Embarcar a pessoa
+            elevador.embarcarPessoa(pessoa);
             
-            if (mesmaDir || !elevador.estaEmMovimento()) {
-                // Embarcar a pessoa
-                elevador.embarcarPessoa(pessoa);
-                
-                // Atualizar estatísticas
-                tempoTotalEspera += pessoa.getTempoEspera();
-                temposEspera.add(pessoa.getTempoEspera());
-            } else {
-                // A pessoa não vai na mesma direção, colocar de volta na fila
-                pessoasRestantes.inserirFim(pessoa);
-            }
-        }
-        
-        // Colocar as pessoas restantes de volta na fila
-        Ponteiro p = pessoasRestantes.getInicio();
-        while (p != null) {
-            pessoasAguardando.enfileirar(p.getElemento());
-            p = p.getProximo();
-        }
-        
-        // Atualizar os botões do painel
-        atualizarBotoesPainel(andar);
-    }
-    
-    private void atualizarBotoesPainel(Andar andar) {
-        PainelElevador painel = andar.getPainel();
-        painel.resetar();
-        
-        // Verificar se ainda há pessoas aguardando e atualizar os botões
-        Fila pessoasAguardando = andar.getPessoasAguardando();
-        if (!pessoasAguardando.estaVazia()) {
-            Ponteiro p = pessoasAguardando.getLista().getInicio();
-            while (p != null) {
-                Pessoa pessoa = (Pessoa) p.getElemento();
-                if (pessoa.getAndarDestino() > andar.getNumero()) {
-                    painel.pressionarSubir();
-                } else if (pessoa.getAndarDestino() < andar.getNumero()) {
-                    painel.pressionarDescer();
-                }
-                p = p.getProximo();
-            }
+            // Atualizar estatísticas
+            temposEspera.registrar(pessoa.getTempoEspera());
         }
     }
 
-    // Modelo 1: Sem heurística (FCFS)
-    private void chamarElevadorFCFS() {
-        if (chamadas.isEmpty()) return;
-        
-        // Pegar o primeiro andar da lista de chamadas
-        int andarChamada = chamadas.get(0);
-        
+    // Modelo 1: Sem heurística (FCFS). Retorna o elevador chamado ou null se nenhum estiver disponível.
+    Elevador chamarElevadorFCFS(int andarChamada) {
         // Encontrar o primeiro elevador disponível
-        Lista elevadores = central.getElevadores();
-        Ponteiro p = elevadores.getInicio();
+        Lista<Elevador> elevadores = central.getElevadores();
         
-        while (p != null) {
-            Elevador elevador = (Elevador) p.getElemento();
+        for (int i = 0; i < elevadores.getTamanho(); i++) {
+            Elevador elevador = elevadores.get(i);
             
             // Se o elevador não estiver em movimento ou já estiver indo para este andar, usá-lo
-            if (!elevador.estaEmMovimento() || elevador.getAndaresParaAtender().contains(andarChamada)) {
+            if (!elevador.estaEmMovimento() || elevador.getAndaresParaAtender().contem(andarChamada)) {
                 elevador.chamarPara(andarChamada);
-                break;
+                return elevador;
             }
-            
-            p = p.getProximo();
         }
         
         // Se nenhum elevador estiver disponível, manter a chamada na fila
+        return null;
     }
     
-    // Modelo 2: Otimização do tempo de espera
-    private void chamarElevadorOtimizacaoTempoEspera(Andar andar, boolean subindo, boolean descendo) {
-        Lista elevadores = central.getElevadores();
+    // Modelo 2: Otimização do tempo de espera. Retorna o elevador chamado.
+    Elevador chamarElevadorOtimizacaoTempoEspera(Andar andar, boolean subindo, boolean descendo) {
+        Lista<Elevador> elevadores = central.getElevadores();
         
         // Implementação da heurística de otimização de tempo de espera
         Elevador melhorElevador = null;
         int menorTempoEstimado = Integer.MAX_VALUE;
         
-        Ponteiro p = elevadores.getInicio();
-        while (p != null) {
-            Elevador elevador = (Elevador) p.getElemento();
+        for (int i = 0; i < elevadores.getTamanho(); i++) {
+            Elevador elevador = elevadores.get(i);
             
             // Calcular o tempo estimado de chegada para este elevador
-            int tempoEstimado = calcularTempoEstimadoChegada(elevador, andar, subindo, descendo);
+            int tempoEstimado = calcularTempoEstimadoChegada(elevador, andar, subindo);
             
             if (tempoEstimado < menorTempoEstimado) {
                 menorTempoEstimado = tempoEstimado;
                 melhorElevador = elevador;
             }
-            
-            p = p.getProximo();
         }
         
         // Chamar o elevador com menor tempo estimado
         if (melhorElevador != null) {
             melhorElevador.chamarPara(andar.getNumero());
         }
+        return melhorElevador;
     }
     
-    private int calcularTempoEstimadoChegada(Elevador elevador, Andar andar, boolean subindo, boolean descendo) {
-        int tempoBase = Math.abs(elevador.getAndarAtual() - andar.getNumero());
-        
-        // Se o elevador estiver em movimento, considerar suas paradas intermediárias
-        if (elevador.estaEmMovimento()) {
-            // Adicionar tempo para cada parada intermediária
-            for (int andarParada : elevador.getAndaresParaAtender()) {
-                if ((elevador.getAndarAtual() < andarParada && andarParada < andar.getNumero()) ||
-                    (elevador.getAndarAtual() > andarParada && andarParada > andar.getNumero())) {
-                    tempoBase += 2; // Tempo para parar e embarcar/desembarcar
-                }
-            }
-            
-            // Se o elevador estiver indo na direção oposta, adicionar tempo para inverter
-            if ((elevador.estaSubindo() && andar.getNumero() < elevador.getAndarAtual()) ||
-                (!elevador.estaSubindo() && andar.getNumero() > elevador.getAndarAtual())) {
-                // Adicionar tempo para chegar ao extremo e voltar
-                int extremo = elevador.estaSubindo() ? 
-                              Collections.max(elevador.getAndaresParaAtender()) : 
-                              Collections.min(elevador.getAndaresParaAtender());
-                tempoBase += 2 * Math.abs(extremo - elevador.getAndarAtual());
-            }
-        }
-        
-        // Considerar a ocupação do elevador (elevadores mais cheios demoram mais)
-        tempoBase += elevador.getPessoasDentro().getTamanho();
-        
-        // Considerar a direção desejada
-        if ((subindo && !elevador.estaSubindo()) || (descendo && elevador.estaSubindo())) {
-            tempoBase += 5; // Penalidade por estar na direção oposta
-        }
-        
-        return tempoBase;
+    // Consulta a tabela de chegada do elevador, que descarta as estimativas quando o seu estado muda
+    int calcularTempoEstimadoChegada(Elevador elevador, Andar andar, boolean subindo) {
+        return elevador.getTempoEstimadoChegada(andar.getNumero(), subindo, andares.length);
     }
     
-    // Modelo 3: Otimização do consumo de energia
-    private void chamarElevadorOtimizacaoEnergia(Andar andar, boolean subindo, boolean descendo, int minutoSimulado) {
-        Lista elevadores = central.getElevadores();
+    // Modelo 3: Otimização do consumo de energia. Retorna o elevador chamado.
+    Elevador chamarElevadorOtimizacaoEnergia(Andar andar, boolean subindo, boolean descendo, int minutoSimulado) {
+        Lista<Elevador> elevadores = central.getElevadores();
         
         // Implementação da heurística de otimização de energia
         Elevador melhorElevador = null;
         int menorConsumoEstimado = Integer.MAX_VALUE;
         
-        Ponteiro p = elevadores.getInicio();
-        while (p != null) {
-            Elevador elevador = (Elevador) p.getElemento();
+        for (int i = 0; i < elevadores.getTamanho(); i++) {
+            Elevador elevador = elevadores.get(i);
             
             // Calcular o consumo estimado para este elevador
             int consumoEstimado = calcularConsumoEstimadoEnergia(elevador, andar, horarioPico);
@@ -322,14 +298,13 @@ public class Predio extends EntidadeSimulavel implements Serializable {
                 menorConsumoEstimado = consumoEstimado;
                 melhorElevador = elevador;
             }
-            
-            p = p.getProximo();
         }
         
         // Chamar o elevador com menor consumo estimado
         if (melhorElevador != null) {
             melhorElevador.chamarPara(andar.getNumero());
         }
+        return melhorElevador;
     }
     
     private int calcularConsumoEstimadoEnergia(Elevador elevador, Andar andar, boolean horarioPico) {
@@ -356,11 +331,12 @@ public class Predio extends EntidadeSimulavel implements Serializable {
         }
         
         // Considerar a ocupação do elevador (elevadores mais cheios consomem mais energia)
-        consumoBase += elevador.getPessoasDentro().getTamanho();
+        consumoBase += elevador.getOcupacao();
         
         // Considerar a distância total que o elevador terá que percorrer
         int distanciaTotal = consumoBase;
-        for (int andarDestino : elevador.getAndaresParaAtender()) {
+        ConjuntoParadas paradas = elevador.getAndaresParaAtender();
+        for (int andarDestino = paradas.menor(); andarDestino != -1; andarDestino = paradas.proximaAPartirDe(andarDestino + 1)) {
             distanciaTotal += Math.abs(andarDestino - andar.getNumero());
         }
         
@@ -368,20 +344,16 @@ public class Predio extends EntidadeSimulavel implements Serializable {
     }
     
     private void atualizarEstatisticasElevadores() {
-        Lista elevadores = central.getElevadores();
-        Ponteiro p = elevadores.getInicio();
+        Lista<Elevador> elevadores = central.getElevadores();
         
-        while (p != null) {
-            Elevador elevador = (Elevador) p.getElemento();
-            
-            // Atualizar estatísticas globais com base nas estatísticas do elevador
-            pessoasTransportadas += elevador.getPessoasTransportadas();
-            tempoTotalViagem += elevador.getTempoTotalViagem();
-            
-            // Resetar estatísticas do elevador para evitar contagem duplicada
-            elevador.resetarEstatisticas();
+        for (int i = 0; i < elevadores.getTamanho(); i++) {
+            Elevador elevador = elevadores.get(i);
             
-            p = p.getProximo();
+            // Registrar nas estatísticas globais as pessoas que desembarcaram neste minuto
+            Lista<Pessoa> desembarcadas = elevador.getDesembarcadas();
+            while (!desembarcadas.estaVazia()) {
+                registrarPessoaTransportada(desembarcadas.removerInicio());
+            }
         }
     }
 
@@ -389,23 +361,28 @@ public class Predio extends EntidadeSimulavel implements Serializable {
         return central;
     }
 
-    public Lista getAndares() {
-        return andares;
+    public Andar getAndar(int numero) {
+        return andares[numero];
+    }
+
+    public int getQuantidadeAndares() {
+        return andares.length;
     }
     
     public void adicionarPessoa(Pessoa pessoa) {
+        if (pessoa.getAndarOrigem() < 0 || pessoa.getAndarOrigem() >= andares.length) return;
+
+        // Adicionar a pessoa à fila de espera do andar, que ativa o botão apropriado no painel
+        andares[pessoa.getAndarOrigem()].adicionarPessoa(pessoa);
+
         pessoasGeradas++;
     }
     
     public void registrarPessoaTransportada(Pessoa pessoa) {
         pessoasTransportadas++;
-        tempoTotalEspera += pessoa.getTempoEspera();
-        tempoTotalViagem += pessoa.getTempoViagem();
-        tempoTotalTransporte += pessoa.getTempoTotal();
-        
-        temposEspera.add(pessoa.getTempoEspera());
-        temposViagem.add(pessoa.getTempoViagem());
-        temposTotal.add(pessoa.getTempoTotal());
+        // A espera já foi registrada no embarque
+        temposViagem.registrar(pessoa.getTempoViagem());
+        temposTotal.registrar(pessoa.getTempoTotal());
     }
     
     // Métodos para estatísticas
@@ -418,26 +395,26 @@ public class Predio extends EntidadeSimulavel implements Serializable {
     }
     
     public double getTempoMedioEspera() {
-        return pessoasTransportadas > 0 ? (double) tempoTotalEspera / pessoasTransportadas : 0;
+        return temposEspera.getMedia();
     }
     
     public double getTempoMedioViagem() {
-        return pessoasTransportadas > 0 ? (double) tempoTotalViagem / pessoasTransportadas : 0;
+        return temposViagem.getMedia();
     }
     
     public double getTempoMedioTotal() {
-        return pessoasTransportadas > 0 ? (double) tempoTotalTransporte / pessoasTransportadas : 0;
+        return temposTotal.getMedia();
     }
     
-    public List<Integer> getTemposEspera() {
+    public EstatisticaTempos getTemposEspera() {
         return temposEspera;
     }
     
-    public List<Integer> getTemposViagem() {
+    public EstatisticaTempos getTemposViagem() {
         return temposViagem;
     }
     
-    public List<Integer> getTemposTotal() {
+    public EstatisticaTempos getTemposTotal() {
         return temposTotal;
     }
     
@@ -445,6 +422,57 @@ public class Predio extends EntidadeSimulavel implements Serializable {
         pessoasGeradas += quantidade;
     }
     
+    // Estado no formato de SnapshotSimulacao (a quantidade de andares e elevadores é gravada antes)
+    public void gravarEstado(DataOutput out) throws IOException {
+        SnapshotSimulacao.escreverInt(out, heuristicaAtual.ordinal());
+        out.writeBoolean(horarioPico);
+        SnapshotSimulacao.escreverInt(out, inicioHorarioPico);
+        SnapshotSimulacao.escreverInt(out, fimHorarioPico);
+        SnapshotSimulacao.escreverInt(out, inicioHorarioPicoTarde);
+        SnapshotSimulacao.escreverInt(out, fimHorarioPicoTarde);
+        SnapshotSimulacao.escreverInt(out, pessoasGeradas);
+        SnapshotSimulacao.escreverInt(out, pessoasTransportadas);
+        temposEspera.gravarEstado(out);
+        temposViagem.gravarEstado(out);
+        temposTotal.gravarEstado(out);
+        
+        for (Andar andar : andares) {
+            andar.gravarEstado(out);
+        }
+        Lista<Elevador> elevadores = central.getElevadores();
+        for (int i = 0; i < elevadores.getTamanho(); i++) {
+            elevadores.get(i).gravarEstado(out);
+        }
+        registroChamadas.gravarEstado(out);
+    }
+    
+    public void lerEstado(DataInput in) throws IOException {
+        heuristicaAtual = HeuristicaElevador.values()[SnapshotSimulacao.lerInt(in)];
+        horarioPico = in.readBoolean();
+        inicioHorarioPico = SnapshotSimulacao.lerInt(in);
+        fimHorarioPico = SnapshotSimulacao.lerInt(in);
+        inicioHorarioPicoTarde = SnapshotSimulacao.lerInt(in);
+        fimHorarioPicoTarde = SnapshotSimulacao.lerInt(in);
+        pessoasGeradas = SnapshotSimulacao.lerInt(in);
+        pessoasTransportadas = SnapshotSimulacao.lerInt(in);
+        temposEspera.lerEstado(in);
+        temposViagem.lerEstado(in);
+        temposTotal.lerEstado(in);
+        
+        for (Andar andar : andares) {
+            andar.lerEstado(in);
+        }
+        Lista<Elevador> elevadores = central.getElevadores();
+        for (int i = 0; i < elevadores.getTamanho(); i++) {
+            elevadores.get(i).lerEstado(in);
+        }
+        registroChamadas.lerEstado(in, elevadores);
+    }
+    
+    public RegistroChamadas getRegistroChamadas() {
+        return registroChamadas;
+    }
+    
     public HeuristicaElevador getHeuristicaAtual() {
         return heuristicaAtual;
     }
@@ -453,6 +481,23 @@ public class Predio extends EntidadeSimulavel implements Serializable {
         this.heuristicaAtual = heuristica;
     }
     
+    // Horários de pico em minutos desde a meia-noite
+    public int getInicioHorarioPico() {
+        return inicioHorarioPico;
+    }
+    
+    public int getFimHorarioPico() {
+        return fimHorarioPico;
+    }
+    
+    public int getInicioHorarioPicoTarde() {
+        return inicioHorarioPicoTarde;
+    }
+    
+    public int getFimHorarioPicoTarde() {
+        return fimHorarioPicoTarde;
+    }
+    
     public boolean isHorarioPico() {
         return horarioPico;
     }
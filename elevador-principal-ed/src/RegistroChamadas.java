@@ -0,0 +1,190 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * Chamadas de andar em aberto, uma por andar e sentido, com o elevador atribuído a cada uma.
+ * A chamada é despachada quando abre e só volta ao despacho quando a atribuição deixa de
+ * valer: o elevador lotou depois de atribuído, inverteu o sentido deixando o andar para trás,
+ * passou pelo andar sem esvaziar a chamada, ou a atribuição expirou. Os eventos são
+ * comparados com a situação no momento da atribuição, para que uma chamada atribuída a um
+ * elevador já cheio não volte ao despacho a cada minuto. As chamadas abertas ficam em uma fila
+ * intrusiva (cada chamada guarda as vizinhas), na ordem em que abriram; abrir e fechar são O(1).
+ */
+public class RegistroChamadas implements Serializable {
+    private static final int TEMPO_LIMITE_MINIMO = 10;
+
+    private final Chamada[] chamadas; // Índice 2 * andar para subir e 2 * andar + 1 para descer
+    private final int tempoLimite;    // Minutos até uma atribuição expirar
+    private Chamada primeira;
+    private Chamada ultima;
+    private int abertas;
+
+    public RegistroChamadas(int quantidadeAndares) {
+        this.chamadas = new Chamada[quantidadeAndares * 2];
+        for (int andar = 0; andar < quantidadeAndares; andar++) {
+            chamadas[2 * andar] = new Chamada(andar, true);
+            chamadas[2 * andar + 1] = new Chamada(andar, false);
+        }
+        // Uma volta completa do elevador mais lento leva por volta de duas vezes a altura do prédio
+        this.tempoLimite = Math.max(TEMPO_LIMITE_MINIMO, 2 * quantidadeAndares);
+    }
+
+    public Chamada get(int andar, boolean subindo) {
+        return chamadas[2 * andar + (subindo ? 0 : 1)];
+    }
+
+    // Abre a chamada (no fim da fila) se ainda não estiver aberta
+    public void abrir(int andar, boolean subindo) {
+        Chamada chamada = get(andar, subindo);
+        if (chamada.aberta) return;
+        chamada.aberta = true;
+        chamada.anterior = ultima;
+        if (ultima == null) {
+            primeira = chamada;
+        } else {
+            ultima.proxima = chamada;
+        }
+        ultima = chamada;
+        abertas++;
+    }
+
+    public void fechar(int andar, boolean subindo) {
+        Chamada chamada = get(andar, subindo);
+        if (!chamada.aberta) return;
+        if (chamada.anterior == null) {
+            primeira = chamada.proxima;
+        } else {
+            chamada.anterior.proxima = chamada.proxima;
+        }
+        if (chamada.proxima == null) {
+            ultima = chamada.anterior;
+        } else {
+            chamada.proxima.anterior = chamada.anterior;
+        }
+        chamada.anterior = null;
+        chamada.proxima = null;
+        chamada.aberta = false;
+        chamada.elevador = null;
+        abertas--;
+    }
+
+    public void limpar() {
+        while (primeira != null) {
+            fechar(primeira.andar, primeira.subindo);
+        }
+    }
+
+    // A chamada aberta mais antiga; as seguintes com getProxima()
+    public Chamada getPrimeira() {
+        return primeira;
+    }
+
+    public int getAbertas() {
+        return abertas;
+    }
+
+    public boolean estaVazio() {
+        return abertas == 0;
+    }
+
+    public void atribuir(Chamada chamada, Elevador elevador, int minutoSimulado) {
+        chamada.elevador = elevador;
+        chamada.minutoAtribuicao = minutoSimulado;
+        if (elevador != null) {
+            chamada.elevadorSubindo = elevador.estaSubindo();
+            chamada.elevadorComEspaco = elevador.temEspacoDisponivel();
+            // Fica sem a parada quando o elevador já estava no andar ao ser chamado
+            chamada.paradaMarcada = elevador.getAndaresParaAtender().contem(chamada.andar);
+        }
+    }
+
+    // Se a chamada precisa (de novo) passar pelo despacho neste minuto
+    public boolean precisaDespacho(Chamada chamada, int minutoSimulado) {
+        Elevador elevador = chamada.elevador;
+        if (elevador == null) return true;
+        if (minutoSimulado - chamada.minutoAtribuicao >= tempoLimite) return true;
+        if (chamada.elevadorComEspaco && !elevador.temEspacoDisponivel()) return true;
+        // Já parou no andar (ou saiu dele, se estava lá ao ser chamado) e a chamada continua aberta
+        if (chamada.paradaMarcada ? !elevador.getAndaresParaAtender().contem(chamada.andar)
+                                  : elevador.getAndarAtual() != chamada.andar) {
+            return true;
+        }
+        // Inverteu o sentido desde a atribuição e o andar ficou para trás
+        if (elevador.estaSubindo() != chamada.elevadorSubindo) {
+            return elevador.estaSubindo() ? chamada.andar < elevador.getAndarAtual()
+                                          : chamada.andar > elevador.getAndarAtual();
+        }
+        return false;
+    }
+
+    // Estado no formato de SnapshotSimulacao: as chamadas abertas na ordem da fila
+    public void gravarEstado(DataOutput out) throws IOException {
+        SnapshotSimulacao.escreverInt(out, abertas);
+        for (Chamada chamada = primeira; chamada != null; chamada = chamada.proxima) {
+            SnapshotSimulacao.escreverInt(out, 2 * chamada.andar + (chamada.subindo ? 0 : 1));
+            SnapshotSimulacao.escreverInt(out, chamada.elevador == null ? 0 : chamada.elevador.getId());
+            SnapshotSimulacao.escreverInt(out, chamada.minutoAtribuicao);
+            out.writeByte((chamada.elevadorSubindo ? 1 : 0) | (chamada.elevadorComEspaco ? 2 : 0)
+                          | (chamada.paradaMarcada ? 4 : 0));
+        }
+    }
+
+    // Os elevadores são os da central, identificados pelo id (posição + 1)
+    public void lerEstado(DataInput in, Lista<Elevador> elevadores) throws IOException {
+        limpar();
+        int quantidade = SnapshotSimulacao.lerInt(in);
+        for (int i = 0; i < quantidade; i++) {
+            int indice = SnapshotSimulacao.lerInt(in);
+            int idElevador = SnapshotSimulacao.lerInt(in);
+            abrir(indice / 2, indice % 2 == 0);
+            Chamada chamada = chamadas[indice];
+            chamada.elevador = idElevador == 0 ? null : elevadores.get(idElevador - 1);
+            chamada.minutoAtribuicao = SnapshotSimulacao.lerInt(in);
+            int situacao = in.readUnsignedByte();
+            chamada.elevadorSubindo = (situacao & 1) != 0;
+            chamada.elevadorComEspaco = (situacao & 2) != 0;
+            chamada.paradaMarcada = (situacao & 4) != 0;
+        }
+    }
+
+    public static final class Chamada implements Serializable {
+        private final int andar;
+        private final boolean subindo;
+        private boolean aberta;
+        private Elevador elevador;       // Null enquanto não houver atribuição
+        private int minutoAtribuicao;
+        // Situação do elevador no momento da atribuição
+        private boolean elevadorSubindo;
+        private boolean elevadorComEspaco;
+        private boolean paradaMarcada;
+        private Chamada anterior;
+        private Chamada proxima;
+
+        private Chamada(int andar, boolean subindo) {
+            this.andar = andar;
+            this.subindo = subindo;
+        }
+
+        public int getAndar() {
+            return andar;
+        }
+
+        public boolean isSubindo() {
+            return subindo;
+        }
+
+        public boolean isAberta() {
+            return aberta;
+        }
+
+        public Elevador getElevador() {
+            return elevador;
+        }
+
+        public Chamada getProxima() {
+            return proxima;
+        }
+    }
+}
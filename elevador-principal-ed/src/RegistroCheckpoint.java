@@ -0,0 +1,304 @@
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Checkpoint incremental de uma simulação: um arquivo só de acréscimos com um snapshot
+ * completo (base) seguido de um registro por minuto simulado. Como a simulação é
+ * determinística, cada registro guarda apenas as entradas do minuto (agendamentos,
+ * pessoas adicionadas, troca de heurística, passos e saltos ociosos) e, para conferência,
+ * o minuto, os contadores, o total de pessoas aguardando e a posição e ocupação de cada
+ * elevador. Os registros são agrupados em lotes (até 64 KB ou 1 segundo) e gravados no
+ * disco por uma thread separada.
+ *
+ * Cada bloco é gravado como [tamanho][conteúdo][CRC32]. Na recuperação a base é carregada
+ * e os registros são reaplicados até o fim do arquivo ou até o primeiro registro
+ * incompleto ou corrompido, retomando a simulação no último minuto consistente.
+ */
+public class RegistroCheckpoint {
+    public static final int NUMERO_MAGICO = 0x454C434B; // "ELCK"
+    public static final int VERSAO = 1;
+
+    private static final int AGENDAR = 0;
+    private static final int PESSOA = 1;
+    private static final int HEURISTICA = 2;
+    private static final int PASSO = 3;
+    private static final int SALTO = 4;
+    private static final int FIM = 5;
+
+    private static final int TAMANHO_LOTE = 1 << 16;
+    private static final long INTERVALO_LOTE_NS = 1_000_000_000L;
+
+    private final FileChannel canal;
+    private final ExecutorService gravador;
+    private final ByteArrayOutputStream bufferRegistro = new ByteArrayOutputStream(256);
+    private final DataOutputStream registro = new DataOutputStream(bufferRegistro);
+    private final CRC32 crc = new CRC32();
+    private ByteBuffer lote = ByteBuffer.allocate(TAMANHO_LOTE);
+    private long inicioLote = System.nanoTime();
+    private volatile IOException erro;
+
+    // Cria o arquivo e grava o snapshot base com o estado atual da simulação
+    public RegistroCheckpoint(String nomeArquivo, Simulador simulador) throws IOException {
+        ByteArrayOutputStream base = new ByteArrayOutputStream();
+        SnapshotSimulacao.gravar(simulador, base, false);
+
+        this.canal = FileChannel.open(Paths.get(nomeArquivo), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.gravador = Executors.newSingleThreadExecutor(tarefa -> {
+            Thread thread = new Thread(tarefa, "checkpoint-simulacao");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        ByteBuffer cabecalho = ByteBuffer.allocate(6);
+        cabecalho.putInt(NUMERO_MAGICO).putShort((short) VERSAO).flip();
+        canal.write(cabecalho);
+        acrescentar(base.toByteArray());
+        enviarLote();
+    }
+
+    // Os métodos abaixo escrevem em memória; as exceções de E/S de DataOutputStream não ocorrem
+    synchronized void agendamento(int minuto, int andarOrigem, int andarDestino) {
+        try {
+            registro.writeByte(AGENDAR);
+            SnapshotSimulacao.escreverInt(registro, minuto);
+            SnapshotSimulacao.escreverInt(registro, andarOrigem);
+            SnapshotSimulacao.escreverInt(registro, andarDestino);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    synchronized void pessoa(int andarOrigem, int andarDestino) {
+        try {
+            registro.writeByte(PESSOA);
+            SnapshotSimulacao.escreverInt(registro, andarOrigem);
+            SnapshotSimulacao.escreverInt(registro, andarDestino);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    synchronized void heuristica(HeuristicaElevador heuristica) {
+        try {
+            registro.writeByte(HEURISTICA);
+            SnapshotSimulacao.escreverInt(registro, heuristica.ordinal());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Fecha o registro do minuto com um passo ou um salto ocioso e o envia para gravação
+    synchronized void passo(Simulador simulador) {
+        try {
+            registro.writeByte(PASSO);
+            confirmar(simulador);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    synchronized void salto(int minutos, Simulador simulador) {
+        try {
+            registro.writeByte(SALTO);
+            SnapshotSimulacao.escreverInt(registro, minutos);
+            confirmar(simulador);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void confirmar(Simulador simulador) throws IOException {
+        registro.writeByte(FIM);
+        gravarConferencia(registro, simulador);
+        registro.flush();
+        acrescentar(bufferRegistro.toByteArray());
+        bufferRegistro.reset();
+        if (lote.position() >= TAMANHO_LOTE || System.nanoTime() - inicioLote >= INTERVALO_LOTE_NS) {
+            enviarLote();
+        }
+    }
+
+    // Acrescenta um bloco [tamanho][conteúdo][CRC32] ao lote atual
+    private void acrescentar(byte[] conteudo) {
+        crc.reset();
+        crc.update(conteudo, 0, conteudo.length);
+        if (lote.remaining() < conteudo.length + 8) {
+            ByteBuffer maior = ByteBuffer.allocate(Math.max(lote.capacity() * 2, lote.position() + conteudo.length + 8));
+            lote.flip();
+            lote = maior.put(lote);
+        }
+        lote.putInt(conteudo.length).put(conteudo).putInt((int) crc.getValue());
+    }
+
+    // Entrega o lote à thread de gravação. Depois de um erro de gravação nada mais é
+    // enviado: o erro é informado em encerrar()
+    private void enviarLote() {
+        ByteBuffer pronto = lote;
+        pronto.flip();
+        lote = ByteBuffer.allocate(TAMANHO_LOTE);
+        inicioLote = System.nanoTime();
+        if (erro != null || !pronto.hasRemaining()) return;
+        gravador.execute(() -> {
+            try {
+                while (pronto.hasRemaining()) {
+                    canal.write(pronto);
+                }
+            } catch (IOException e) {
+                erro = e;
+            }
+        });
+    }
+
+    // Grava os registros pendentes, aguarda a thread de gravação e fecha o arquivo
+    public void encerrar() throws IOException {
+        synchronized (this) {
+            enviarLote();
+        }
+        gravador.shutdown();
+        try {
+            gravador.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        canal.close();
+        if (erro != null) throw erro;
+    }
+
+    private static void gravarConferencia(DataOutputStream out, Simulador simulador) throws IOException {
+        Predio predio = simulador.getPredio();
+        SnapshotSimulacao.escreverInt(out, simulador.getMinutoSimulado());
+        SnapshotSimulacao.escreverInt(out, simulador.getPessoasGeradas());
+        SnapshotSimulacao.escreverInt(out, predio.getPessoasTransportadas());
+        SnapshotSimulacao.escreverInt(out, pessoasAguardando(predio));
+        Lista<Elevador> elevadores = predio.getCentral().getElevadores();
+        for (int i = 0; i < elevadores.getTamanho(); i++) {
+            Elevador elevador = elevadores.get(i);
+            SnapshotSimulacao.escreverInt(out, elevador.getAndarAtual());
+            SnapshotSimulacao.escreverInt(out, elevador.getOcupacao());
+        }
+    }
+
+    private static boolean conferir(DataInputStream in, Simulador simulador) throws IOException {
+        Predio predio = simulador.getPredio();
+        boolean consistente = SnapshotSimulacao.lerInt(in) == simulador.getMinutoSimulado()
+                & SnapshotSimulacao.lerInt(in) == simulador.getPessoasGeradas()
+                & SnapshotSimulacao.lerInt(in) == predio.getPessoasTransportadas()
+                & SnapshotSimulacao.lerInt(in) == pessoasAguardando(predio);
+        Lista<Elevador> elevadores = predio.getCentral().getElevadores();
+        for (int i = 0; i < elevadores.getTamanho(); i++) {
+            Elevador elevador = elevadores.get(i);
+            consistente &= SnapshotSimulacao.lerInt(in) == elevador.getAndarAtual();
+            consistente &= SnapshotSimulacao.lerInt(in) == elevador.getOcupacao();
+        }
+        return consistente;
+    }
+
+    private static int pessoasAguardando(Predio predio) {
+        int total = 0;
+        for (int i = 0; i < predio.getQuantidadeAndares(); i++) {
+            total += predio.getAndar(i).getQuantidadeAguardando();
+        }
+        return total;
+    }
+
+    // Indica se o arquivo começa com o cabeçalho de um checkpoint
+    public static boolean ehCheckpoint(String nomeArquivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(Paths.get(nomeArquivo), StandardOpenOption.READ)) {
+            ByteBuffer magico = ByteBuffer.allocate(4);
+            while (magico.hasRemaining() && canal.read(magico) >= 0) { }
+            return !magico.hasRemaining() && magico.getInt(0) == NUMERO_MAGICO;
+        }
+    }
+
+    // Carrega a base e reaplica os registros até o último minuto consistente
+    public static Simulador recuperar(String nomeArquivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(Paths.get(nomeArquivo), StandardOpenOption.READ);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(canal), 1 << 16))) {
+            if (in.readInt() != NUMERO_MAGICO) {
+                throw new IOException("Arquivo não é um checkpoint do simulador");
+            }
+            int versao = in.readUnsignedShort();
+            if (versao != VERSAO) {
+                throw new IOException("Versão de checkpoint não suportada: " + versao);
+            }
+
+            long limite = canal.size();
+            byte[] base = lerBloco(in, limite);
+            if (base == null) {
+                throw new IOException("Snapshot base do checkpoint incompleto ou corrompido");
+            }
+            Simulador simulador = SnapshotSimulacao.carregar(new ByteArrayInputStream(base));
+
+            byte[] bloco;
+            while ((bloco = lerBloco(in, limite)) != null) {
+                aplicar(new DataInputStream(new ByteArrayInputStream(bloco)), simulador);
+            }
+            return simulador;
+        }
+    }
+
+    // Retorna null no fim do arquivo ou se o bloco estiver incompleto ou corrompido
+    private static byte[] lerBloco(DataInputStream in, long limite) throws IOException {
+        try {
+            int tamanho = in.readInt();
+            if (tamanho < 0 || tamanho > limite) return null;
+            byte[] conteudo = new byte[tamanho];
+            in.readFully(conteudo);
+            int crcGravado = in.readInt();
+            CRC32 crc = new CRC32();
+            crc.update(conteudo, 0, conteudo.length);
+            return (int) crc.getValue() == crcGravado ? conteudo : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static void aplicar(DataInputStream in, Simulador simulador) throws IOException {
+        while (true) {
+            int operacao = in.readUnsignedByte();
+            switch (operacao) {
+                case AGENDAR:
+                    int minuto = SnapshotSimulacao.lerInt(in);
+                    int origem = SnapshotSimulacao.lerInt(in);
+                    simulador.agendarChegada(minuto, origem, SnapshotSimulacao.lerInt(in));
+                    break;
+                case PESSOA:
+                    int andarOrigem = SnapshotSimulacao.lerInt(in);
+                    simulador.adicionarPessoa(andarOrigem, SnapshotSimulacao.lerInt(in));
+                    break;
+                case HEURISTICA:
+                    simulador.setHeuristicaAtual(HeuristicaElevador.values()[SnapshotSimulacao.lerInt(in)]);
+                    break;
+                case PASSO:
+                    simulador.passo();
+                    break;
+                case SALTO:
+                    simulador.saltar(SnapshotSimulacao.lerInt(in));
+                    break;
+                case FIM:
+                    if (!conferir(in, simulador)) {
+                        throw new IOException("Checkpoint inconsistente no minuto " + simulador.getMinutoSimulado());
+                    }
+                    return;
+                default:
+                    throw new IOException("Operação desconhecida no checkpoint: " + operacao);
+            }
+        }
+    }
+}
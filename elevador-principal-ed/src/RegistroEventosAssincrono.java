@@ -0,0 +1,144 @@
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ouvinte que registra os eventos dos elevadores em um buffer circular pré-alocado e
+ * os escreve na saída por uma thread separada. A thread da simulação apenas copia
+ * alguns inteiros para o buffer: não monta strings nem disputa o lock do console.
+ * Se o buffer estiver cheio o evento é descartado (e contado) em vez de bloquear a simulação.
+ */
+public class RegistroEventosAssincrono implements OuvinteElevador {
+    private static final int MOVEU = 0;
+    private static final int PAROU = 1;
+    private static final int EMBARCOU = 2;
+    private static final int DESEMBARCOU = 3;
+
+    private final int mascara;
+    private final int[] tipos;
+    private final int[] minutos;
+    private final int[] elevadores;
+    private final int[] andares;
+    private final int[] detalhes; // Sentido (1 = subindo) ou id da pessoa
+
+    // Sequência publicada em cada posição do buffer (-1 enquanto vazia)
+    private final AtomicLongArray publicados;
+    private final AtomicLong proximo = new AtomicLong();
+    private final AtomicLong descartados = new AtomicLong();
+    private volatile long consumido;
+    private volatile boolean ativo = true;
+
+    private final PrintStream saida;
+    private final Thread consumidor;
+
+    // A capacidade é arredondada para a próxima potência de 2
+    public RegistroEventosAssincrono(PrintStream saida, int capacidade) {
+        int tamanho = Integer.highestOneBit(Math.max(2, capacidade - 1)) << 1;
+        this.mascara = tamanho - 1;
+        this.tipos = new int[tamanho];
+        this.minutos = new int[tamanho];
+        this.elevadores = new int[tamanho];
+        this.andares = new int[tamanho];
+        this.detalhes = new int[tamanho];
+        this.publicados = new AtomicLongArray(tamanho);
+        for (int i = 0; i < tamanho; i++) {
+            publicados.set(i, -1);
+        }
+        this.saida = saida;
+        this.consumidor = new Thread(this::consumir, "registro-eventos-elevador");
+        this.consumidor.setDaemon(true);
+        this.consumidor.start();
+    }
+
+    @Override
+    public void elevadorMoveu(Elevador elevador, int minutoSimulado) {
+        publicar(MOVEU, minutoSimulado, elevador.getId(), elevador.getAndarAtual(), elevador.estaSubindo() ? 1 : 0);
+    }
+
+    @Override
+    public void elevadorParou(Elevador elevador, int minutoSimulado) {
+        publicar(PAROU, minutoSimulado, elevador.getId(), elevador.getAndarAtual(), 0);
+    }
+
+    @Override
+    public void pessoaEmbarcou(Elevador elevador, Pessoa pessoa, int minutoSimulado) {
+        publicar(EMBARCOU, minutoSimulado, elevador.getId(), elevador.getAndarAtual(), pessoa.getId());
+    }
+
+    @Override
+    public void pessoaDesembarcou(Elevador elevador, Pessoa pessoa, int minutoSimulado) {
+        publicar(DESEMBARCOU, minutoSimulado, elevador.getId(), elevador.getAndarAtual(), pessoa.getId());
+    }
+
+    private void publicar(int tipo, int minuto, int elevador, int andar, int detalhe) {
+        // Reservar uma posição livre; com o buffer cheio o evento é descartado
+        long sequencia;
+        do {
+            sequencia = proximo.get();
+            if (sequencia - consumido > mascara) {
+                descartados.incrementAndGet();
+                return;
+            }
+        } while (!proximo.compareAndSet(sequencia, sequencia + 1));
+
+        int indice = (int) (sequencia & mascara);
+        tipos[indice] = tipo;
+        minutos[indice] = minuto;
+        elevadores[indice] = elevador;
+        andares[indice] = andar;
+        detalhes[indice] = detalhe;
+        publicados.set(indice, sequencia);
+    }
+
+    private void consumir() {
+        StringBuilder sb = new StringBuilder(64);
+        while (true) {
+            long sequencia = consumido;
+            int indice = (int) (sequencia & mascara);
+            if (publicados.get(indice) == sequencia) {
+                sb.setLength(0);
+                formatar(sb, indice);
+                saida.println(sb);
+                consumido = sequencia + 1;
+            } else if (!ativo && sequencia >= proximo.get()) {
+                break;
+            } else {
+                LockSupport.parkNanos(100_000);
+            }
+        }
+        saida.flush();
+    }
+
+    private void formatar(StringBuilder sb, int indice) {
+        sb.append("Minuto ").append(minutos[indice]).append(" - Elevador ").append(elevadores[indice]);
+        switch (tipos[indice]) {
+            case MOVEU:
+                sb.append(" no andar ").append(andares[indice]).append(detalhes[indice] == 1 ? " subindo" : " descendo");
+                break;
+            case PAROU:
+                sb.append(" parado no andar ").append(andares[indice]);
+                break;
+            case EMBARCOU:
+                sb.append(": pessoa ").append(detalhes[indice]).append(" embarcou no andar ").append(andares[indice]);
+                break;
+            case DESEMBARCOU:
+                sb.append(": pessoa ").append(detalhes[indice]).append(" desembarcou no andar ").append(andares[indice]);
+                break;
+        }
+    }
+
+    // Escreve os eventos pendentes e encerra a thread de escrita
+    public void encerrar() {
+        ativo = false;
+        try {
+            consumidor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public long getEventosDescartados() {
+        return descartados.get();
+    }
+}
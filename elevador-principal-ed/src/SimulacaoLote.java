@@ -0,0 +1,165 @@
+import java.io.IOException;
+import java.text.DecimalFormat;
+import java.util.Random;
+
+/**
+ * Ponto de entrada em linha de comando para executar a simulação sem interface gráfica,
+ * o mais rápido possível (útil para planejamento de capacidade).
+ *
+ * Uso: java SimulacaoLote [andares] [elevadores] [capacidade] [minutos] [pessoasPorMinuto] [heuristica] [semente]
+ *      [--log] [--eventos] [--checkpoint=arquivo] [--retomar=arquivo] [--gravar-trafego=arquivo] [--trafego=arquivo]
+ *      [--perfil-diario] [--paralelo]
+ *
+ * Com --log os eventos dos elevadores são escritos na saída por um registro assíncrono.
+ * Com --eventos a simulação usa o modo por eventos, pulando os intervalos ociosos.
+ * Com --checkpoint a execução grava um checkpoint incremental no arquivo; com --retomar a
+ * simulação é carregada de um checkpoint (ou snapshot) e continua até o minuto final.
+ * Com --gravar-trafego as chegadas da execução são gravadas em um rastro; com --trafego as
+ * chegadas vêm de um rastro gravado em vez de serem sorteadas (pessoasPorMinuto e semente
+ * são ignorados), para repetir o mesmo dia com outra heurística.
+ * Com --perfil-diario as chegadas seguem um dia típico (GeradorTrafego.diaTipico), com
+ * pessoasPorMinuto como taxa base e picos de subida e descida nos horários de pico do prédio;
+ * para retomar essa execução, informe a mesma taxa e a mesma semente.
+ * Com --paralelo os elevadores são movidos em paralelo a cada minuto (mesmo resultado).
+ */
+public class SimulacaoLote {
+
+    public static void main(String[] argumentos) throws IOException {
+        boolean log = false;
+        boolean eventos = false;
+        String arquivoCheckpoint = null;
+        String arquivoRetomar = null;
+        String arquivoGravarTrafego = null;
+        String arquivoTrafego = null;
+        boolean perfilDiario = false;
+        boolean paralelo = false;
+        Lista<String> posicionais = new Lista<>();
+        for (String argumento : argumentos) {
+            if (argumento.equals("--log")) {
+                log = true;
+            } else if (argumento.equals("--eventos")) {
+                eventos = true;
+            } else if (argumento.startsWith("--checkpoint=")) {
+                arquivoCheckpoint = argumento.substring("--checkpoint=".length());
+            } else if (argumento.startsWith("--retomar=")) {
+                arquivoRetomar = argumento.substring("--retomar=".length());
+            } else if (argumento.startsWith("--gravar-trafego=")) {
+                arquivoGravarTrafego = argumento.substring("--gravar-trafego=".length());
+            } else if (argumento.equals("--perfil-diario")) {
+                perfilDiario = true;
+            } else if (argumento.equals("--paralelo")) {
+                paralelo = true;
+            } else if (argumento.startsWith("--trafego=")) {
+                arquivoTrafego = argumento.substring("--trafego=".length());
+            } else {
+                posicionais.inserirFim(argumento);
+            }
+        }
+        String[] args = new String[posicionais.getTamanho()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = posicionais.removerInicio();
+        }
+
+        int andares = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int elevadores = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int capacidade = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        int minutos = args.length > 3 ? Integer.parseInt(args[3]) : 1440;
+        double pessoasPorMinuto = args.length > 4 ? Double.parseDouble(args[4]) : 0.5;
+        HeuristicaElevador heuristica = HeuristicaElevador.SEM_HEURISTICA;
+        if (args.length > 5) {
+            try {
+                heuristica = HeuristicaElevador.ler(args[5]);
+            } catch (IllegalArgumentException e) {
+                System.out.println(e.getMessage());
+                return;
+            }
+        }
+        Random random = args.length > 6 ? new Random(Long.parseLong(args[6])) : new Random();
+        boolean geradorDiario = perfilDiario && arquivoTrafego == null;
+        if (geradorDiario && arquivoRetomar != null && args.length <= 6) {
+            // O gerador é refeito do minuto 0 e só repete as mesmas chegadas com a mesma semente
+            System.out.println("--perfil-diario com --retomar exige a mesma semente da execução original");
+            return;
+        }
+
+        Simulador simulador;
+        if (arquivoRetomar != null) {
+            // O estado retomado já traz prédio, heurística, modo e chegadas agendadas
+            simulador = Simulador.carregar(arquivoRetomar);
+            if (simulador == null) return;
+            heuristica = simulador.getHeuristicaAtual();
+            andares = simulador.getPredio().getQuantidadeAndares();
+            Lista<Elevador> listaElevadores = simulador.getPredio().getCentral().getElevadores();
+            elevadores = listaElevadores.getTamanho();
+            capacidade = elevadores > 0 ? listaElevadores.get(0).getCapacidadeMaxima() : capacidade;
+            System.out.println("Retomando do minuto " + simulador.getMinutoSimulado());
+        } else {
+            simulador = new Simulador(andares, elevadores, 0, capacidade);
+            simulador.setHeuristicaAtual(heuristica);
+            simulador.setModo(eventos ? ModoSimulacao.POR_EVENTOS : ModoSimulacao.POR_MINUTO);
+            if (!geradorDiario && arquivoTrafego == null) {
+                // Agendar as chegadas de todo o período antes de executar
+                simulador.agendarChegadasAleatorias(0, minutos, pessoasPorMinuto, random);
+            }
+        }
+        if (geradorDiario) {
+            // Ao retomar, o gerador refaz o dia desde o minuto 0 e descarta o que já foi entregue
+            GeradorTrafego gerador = GeradorTrafego.diaTipico(simulador.getPredio(), pessoasPorMinuto, random, 0, minutos);
+            descartarChegadasAnteriores(gerador, simulador.getMinutoSimulado());
+            simulador.setFonteTrafego(gerador);
+        }
+        LeitorTrafego trafego = null;
+        if (arquivoTrafego != null) {
+            trafego = new LeitorTrafego(arquivoTrafego, simulador.getPredio().getQuantidadeAndares());
+            descartarChegadasAnteriores(trafego, simulador.getMinutoSimulado());
+            simulador.setFonteTrafego(trafego);
+        }
+        if (arquivoGravarTrafego != null) {
+            simulador.iniciarGravacaoTrafego(arquivoGravarTrafego);
+        }
+        simulador.setAtualizacaoParalela(paralelo);
+        RegistroEventosAssincrono registro = null;
+        if (log) {
+            registro = new RegistroEventosAssincrono(System.out, 1 << 16);
+            simulador.setOuvinteElevador(registro);
+        }
+        if (arquivoCheckpoint != null) {
+            simulador.iniciarCheckpoint(arquivoCheckpoint);
+        }
+
+        long inicio = System.nanoTime();
+        simulador.executarAte(minutos);
+        simulador.encerrarCheckpoint();
+        simulador.encerrarGravacaoTrafego();
+        long duracaoMs = (System.nanoTime() - inicio) / 1_000_000;
+        if (trafego != null) {
+            trafego.close();
+        }
+        if (registro != null) {
+            registro.encerrar();
+        }
+
+        DecimalFormat df = new DecimalFormat("#.##");
+        System.out.println("Heurística: " + heuristica + " | Modo: " + simulador.getModo());
+        System.out.println("Andares: " + andares + " | Elevadores: " + elevadores + " | Capacidade: " + capacidade);
+        System.out.println("Minutos simulados: " + simulador.getMinutoSimulado() + " (" + duracaoMs + " ms)");
+        System.out.println("Pessoas geradas: " + simulador.getPessoasGeradas());
+        System.out.println("Pessoas transportadas: " + simulador.getPessoasTransportadas());
+        System.out.println("Tempo médio de espera: " + df.format(simulador.getTempoMedioEspera()) + " min");
+        System.out.println("Tempo médio de viagem: " + df.format(simulador.getTempoMedioViagem()) + " min");
+        System.out.println("Tempo médio total: " + df.format(simulador.getTempoMedioTotal()) + " min");
+        System.out.println("Espera p50/p95/p99: " + simulador.getPercentilEspera(50) + " / " +
+                           simulador.getPercentilEspera(95) + " / " + simulador.getPercentilEspera(99) + " min");
+        System.out.println("Total p50/p95/p99: " + simulador.getPercentilTotal(50) + " / " +
+                           simulador.getPercentilTotal(95) + " / " + simulador.getPercentilTotal(99) + " min");
+        System.out.println("Andares percorridos: " + simulador.getAndaresPercorridos());
+    }
+
+    // Ao retomar, as chegadas da fonte anteriores ao minuto atual já entraram no estado carregado
+    // (o checkpoint as reaplica como pessoas adicionadas) e não podem ser entregues de novo
+    private static void descartarChegadasAnteriores(FonteTrafego fonte, int minutoAtual) {
+        while (fonte.proximoMinuto() < minutoAtual) {
+            fonte.avancar();
+        }
+    }
+}
@@ -1,15 +1,45 @@
 import java.io.*;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 public class Simulador implements Serializable {
+    // Velocidade em que os minutos são executados em sequência, sem espera entre eles
+    public static final int VELOCIDADE_MAXIMA = 0;
+    // Em velocidade máxima, tempo de cada lote de minutos antes de publicar o estado
+    private static final long LOTE_VELOCIDADE_MAXIMA_NS = 16_000_000L;
+
     private int minutoSimulado;
     private int velocidadeEmMs;
-    private transient Timer timer;
-    private boolean emExecucao;
+    private volatile boolean emExecucao;
     private Predio predio;
     private int proximoIdPessoa;
     private HeuristicaElevador heuristicaAtual;
+    private ModoSimulacao modo;
+    private PriorityQueue<EventoChegada> agenda; // Chegadas agendadas, ordenadas por minuto
+    private long sequenciaAgenda;
+    private transient RegistroCheckpoint checkpoint; // Null se o checkpoint incremental estiver desligado
+    private transient FonteTrafego fonteTrafego;     // Chegadas externas (não vão para o snapshot)
+    private transient GravadorTrafego gravadorTrafego;
+    // Entrega de estado para a interface: a simulação publica uma cópia imutável a cada
+    // minuto e recebe as ações da interface por uma fila sem bloqueio
+    private transient volatile EstadoVisual estadoVisual;
+    private transient ConcurrentLinkedQueue<Runnable> comandos;
+    // Laço em tempo real: uma thread que executa um minuto por período e se reagenda.
+    // Cada pausa ou mudança de velocidade troca a geração, e os agendamentos antigos são ignorados.
+    private transient ScheduledExecutorService laco;
+    private transient ScheduledFuture<?> proximaExecucao;
+    private transient int geracaoLaco;
+    private transient long proximoPassoNs;
+    private transient long ultimoPassoNs;
+    private transient long inicioJanelaNs;
+    private transient int passosNaJanela;
+    private transient volatile double passosPorSegundo;
+    private transient volatile long passosAtrasados;
     
     // Estatísticas
     private int pessoasGeradas;
@@ -24,65 +54,417 @@ public class Simulador implements Serializable {
         this.pessoasTransportadas = 0;
         this.heuristicaAtual = HeuristicaElevador.SEM_HEURISTICA;
         this.predio.setHeuristicaAtual(heuristicaAtual);
+        this.modo = ModoSimulacao.POR_MINUTO;
+        this.agenda = new PriorityQueue<>();
+        this.sequenciaAgenda = 0;
+        this.comandos = new ConcurrentLinkedQueue<>();
+        publicarEstadoVisual();
     }
 
-    public void iniciar() {
+    public synchronized void iniciar() {
         if (emExecucao) return;
-        emExecucao = true;
-        iniciarTimer();
+        iniciarLaco();
         System.out.println("Simulação iniciada.");
     }
 
-    public void pausar() {
-        if (timer != null) {
-            timer.cancel();
-            emExecucao = false;
+    public synchronized void pausar() {
+        if (emExecucao) {
+            pararLaco();
             System.out.println("Simulação pausada.");
         }
     }
 
-    public void continuar() {
+    public synchronized void continuar() {
         if (!emExecucao) {
-            iniciarTimer();
-            emExecucao = true;
+            iniciarLaco();
             System.out.println("Simulação retomada.");
         }
     }
 
-    public void encerrar() {
-        if (timer != null) timer.cancel();
-        emExecucao = false;
+    public synchronized void encerrar() {
+        pararLaco();
+        if (laco != null) {
+            laco.shutdown();
+            laco = null;
+        }
         System.out.println("Simulação encerrada.");
     }
 
-    private void iniciarTimer() {
-        timer = new Timer();
-        timer.scheduleAtFixedRate(new TimerTask() {
-            public void run() {
-                predio.atualizar(minutoSimulado++);
+    // Executa a simulação sem timer nem interface, o mais rápido possível,
+    // até que o minuto simulado alcance minutoFinal (exclusivo).
+    public void executarAte(int minutoFinal) {
+        if (emExecucao) return;
+        while (minutoSimulado < minutoFinal) {
+            if (modo == ModoSimulacao.POR_EVENTOS) {
+                // Pular direto para o próximo evento: a próxima chegada agendada ou o
+                // próximo minuto em que algum elevador/andar muda de estado
+                int proximoEvento = Math.min(minutoFinal, proximaChegada());
+                int ociosos = predio.minutosOciosos();
+                if (ociosos < proximoEvento - minutoSimulado) {
+                    proximoEvento = minutoSimulado + ociosos;
+                }
+                if (proximoEvento > minutoSimulado) {
+                    saltar(proximoEvento - minutoSimulado);
+                    continue;
+                }
+            }
+            passo();
+        }
+        publicarEstadoVisual();
+    }
+
+    // Um minuto da simulação: entregar as chegadas do minuto e atualizar o prédio
+    void passo() {
+        // As chegadas da fonte externa vão para o checkpoint como pessoas adicionadas,
+        // por isso entram antes das agendadas (a mesma ordem em que o checkpoint as reaplica)
+        while (fonteTrafego != null && fonteTrafego.proximoMinuto() <= minutoSimulado) {
+            adicionarPessoa(fonteTrafego.proximaOrigem(), fonteTrafego.proximoDestino());
+            fonteTrafego.avancar();
+        }
+        while (!agenda.isEmpty() && agenda.peek().getMinuto() <= minutoSimulado) {
+            EventoChegada chegada = agenda.poll();
+            novaPessoa(chegada.getAndarOrigem(), chegada.getAndarDestino());
+        }
+        predio.atualizar(minutoSimulado++);
+        if (checkpoint != null) checkpoint.passo(this);
+    }
+
+    // Avança vários minutos em que nada muda de estado (modo por eventos)
+    void saltar(int minutos) {
+        predio.avancarOcioso(minutoSimulado, minutos);
+        minutoSimulado += minutos;
+        if (checkpoint != null) checkpoint.salto(minutos, this);
+    }
+
+    private int proximaChegada() {
+        int proxima = agenda.isEmpty() ? Integer.MAX_VALUE : agenda.peek().getMinuto();
+        if (fonteTrafego != null) {
+            proxima = Math.min(proxima, fonteTrafego.proximoMinuto());
+        }
+        return proxima;
+    }
+
+    // Agenda a chegada de uma pessoa no andar de origem em um minuto futuro
+    public void agendarChegada(int minuto, int andarOrigem, int andarDestino) {
+        conferirChegada(andarOrigem, andarDestino);
+        agenda.add(new EventoChegada(minuto, sequenciaAgenda++, andarOrigem, andarDestino));
+        if (checkpoint != null) checkpoint.agendamento(minuto, andarOrigem, andarDestino);
+    }
+
+    // Agenda chegadas com origem e destino aleatórios entre minutoInicial e minutoFinal (exclusivo),
+    // em média pessoasPorMinuto por minuto. Com a mesma semente gera sempre o mesmo tráfego.
+    public void agendarChegadasAleatorias(int minutoInicial, int minutoFinal, double pessoasPorMinuto, Random random) {
+        int totalAndares = predio.getQuantidadeAndares();
+        if (totalAndares < 2) return;
+
+        for (int minuto = minutoInicial; minuto < minutoFinal; minuto++) {
+            // Parte inteira da taxa mais um sorteio para a fração
+            int quantidade = (int) pessoasPorMinuto;
+            if (random.nextDouble() < pessoasPorMinuto - quantidade) {
+                quantidade++;
+            }
+            for (int i = 0; i < quantidade; i++) {
+                int origem = random.nextInt(totalAndares);
+                int destino;
+                do {
+                    destino = random.nextInt(totalAndares);
+                } while (destino == origem);
+                agendarChegada(minuto, origem, destino);
+            }
+        }
+    }
+
+    // Gera pessoas com origem e destino aleatórios (diferentes entre si).
+    // Retorna false se o prédio não tiver andares suficientes.
+    public boolean adicionarPessoasAleatorias(int quantidade, Random random) {
+        int totalAndares = predio.getQuantidadeAndares();
+
+        if (totalAndares < 2) return false;
+
+        for (int i = 0; i < quantidade; i++) {
+            int origem = random.nextInt(totalAndares);
+            int destino;
+            do {
+                destino = random.nextInt(totalAndares);
+            } while (destino == origem);
+
+            adicionarPessoa(origem, destino);
+        }
+        return true;
+    }
+
+    // Coloca imediatamente uma nova pessoa na fila do andar de origem
+    void adicionarPessoa(int andarOrigem, int andarDestino) {
+        novaPessoa(andarOrigem, andarDestino);
+        if (checkpoint != null) checkpoint.pessoa(andarOrigem, andarDestino);
+    }
+
+    private void novaPessoa(int andarOrigem, int andarDestino) {
+        conferirChegada(andarOrigem, andarDestino);
+        predio.adicionarPessoa(new Pessoa(proximoIdPessoa++, andarOrigem, andarDestino, minutoSimulado));
+        pessoasGeradas++;
+        if (gravadorTrafego != null) {
+            try {
+                gravadorTrafego.registrar(minutoSimulado, andarOrigem, andarDestino);
+            } catch (IOException e) {
+                e.printStackTrace();
+                gravadorTrafego = null;
+            }
+        }
+    }
+
+    // Uma chegada fora do prédio (por exemplo, de um rastro gravado em outro prédio) não pode
+    // ser contada como gerada nem virar parada em um andar que não existe
+    private void conferirChegada(int andarOrigem, int andarDestino) {
+        int totalAndares = predio.getQuantidadeAndares();
+        if (andarOrigem < 0 || andarOrigem >= totalAndares || andarDestino < 0 || andarDestino >= totalAndares
+                || andarOrigem == andarDestino) {
+            throw new IllegalArgumentException("Chegada inválida de " + andarOrigem + " para " + andarDestino
+                                               + " em um prédio de " + totalAndares + " andares");
+        }
+    }
+
+    // Passa a receber chegadas da fonte (por exemplo, um rastro gravado); null para desligar
+    public void setFonteTrafego(FonteTrafego fonte) {
+        this.fonteTrafego = fonte;
+    }
+
+    public FonteTrafego getFonteTrafego() {
+        return fonteTrafego;
+    }
+
+    // Grava no arquivo o rastro de todas as pessoas que entrarem no prédio a partir de agora
+    public void iniciarGravacaoTrafego(String nomeArquivo) {
+        encerrarGravacaoTrafego();
+        try {
+            gravadorTrafego = new GravadorTrafego(nomeArquivo, predio.getQuantidadeAndares());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public void encerrarGravacaoTrafego() {
+        if (gravadorTrafego == null) return;
+        try {
+            gravadorTrafego.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        gravadorTrafego = null;
+    }
+
+    public boolean isGravandoTrafego() {
+        return gravadorTrafego != null;
+    }
+
+    // Chamado com o monitor
+    private void iniciarLaco() {
+        if (laco == null) {
+            laco = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+                Thread thread = new Thread(tarefa, "simulacao");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        emExecucao = true;
+        long agora = System.nanoTime();
+        proximoPassoNs = agora;
+        inicioJanelaNs = agora;
+        passosNaJanela = 0;
+        agendarPasso(agora);
+    }
+
+    // Chamado com o monitor
+    private void pararLaco() {
+        emExecucao = false;
+        geracaoLaco++;
+        if (proximaExecucao != null) {
+            proximaExecucao.cancel(false);
+            proximaExecucao = null;
+        }
+        passosPorSegundo = 0;
+    }
+
+    private void agendarPasso(long agora) {
+        int geracao = ++geracaoLaco;
+        proximaExecucao = laco.schedule(() -> executarLaco(geracao), proximoPassoNs - agora, TimeUnit.NANOSECONDS);
+    }
+
+    // Um ciclo do laço: um minuto (ou, em velocidade máxima, um lote de minutos) e o
+    // reagendamento para o próximo prazo. Se o passo passar do prazo seguinte, os prazos
+    // perdidos são contados como atraso e descartados, em vez de executados em rajada.
+    // O monitor só é disputado quando a interface pausa, muda a velocidade ou aplica
+    // comandos com a simulação pausada.
+    private synchronized void executarLaco(int geracao) {
+        if (geracao != geracaoLaco) return; // Pausado ou reagendado depois deste agendamento
+        long inicio = System.nanoTime();
+        int passos = 0;
+        do {
+            aplicarComandos();
+            passo();
+            passos++;
+        } while (velocidadeEmMs <= VELOCIDADE_MAXIMA && System.nanoTime() - inicio < LOTE_VELOCIDADE_MAXIMA_NS);
+        publicarEstadoVisual();
+
+        long agora = System.nanoTime();
+        ultimoPassoNs = inicio;
+        medirPassos(passos, agora);
+        if (velocidadeEmMs <= VELOCIDADE_MAXIMA) {
+            proximoPassoNs = agora;
+        } else {
+            long periodo = velocidadeEmMs * 1_000_000L;
+            proximoPassoNs += periodo;
+            if (proximoPassoNs < agora) {
+                long perdidos = (agora - proximoPassoNs) / periodo + 1;
+                passosAtrasados += perdidos;
+                proximoPassoNs += perdidos * periodo;
+            }
+        }
+        agendarPasso(agora);
+    }
+
+    // Passos executados por segundo, medidos em janelas de pelo menos um segundo
+    private void medirPassos(int passos, long agora) {
+        passosNaJanela += passos;
+        long decorrido = agora - inicioJanelaNs;
+        if (decorrido >= 1_000_000_000L) {
+            passosPorSegundo = passosNaJanela * 1e9 / decorrido;
+            passosNaJanela = 0;
+            inicioJanelaNs = agora;
+        }
+    }
+
+    // Minutos simulados por segundo de relógio no laço em tempo real (0 com a simulação parada)
+    public double getPassosPorSegundo() {
+        return passosPorSegundo;
+    }
+
+    // Prazos do laço que foram descartados porque um passo demorou mais que o período
+    public long getPassosAtrasados() {
+        return passosAtrasados;
+    }
+
+    // Enfileira uma ação vinda de outra thread (por exemplo, da interface) para ser executada
+    // pela thread da simulação no início do próximo minuto. Com a simulação parada a ação
+    // é executada na hora.
+    public void enviarComando(Runnable comando) {
+        comandos.offer(comando);
+        if (!emExecucao) {
+            synchronized (this) {
+                aplicarComandos();
+                publicarEstadoVisual();
             }
-        }, 0, velocidadeEmMs);
+        }
+    }
+
+    private void aplicarComandos() {
+        Runnable comando;
+        while ((comando = comandos.poll()) != null) {
+            comando.run();
+        }
+    }
+
+    void publicarEstadoVisual() {
+        estadoVisual = EstadoVisual.capturar(this);
+    }
+
+    // Último estado publicado; pode ser lido de qualquer thread
+    public EstadoVisual getEstadoVisual() {
+        return estadoVisual;
     }
 
     public void gravar(String nomeArquivo) {
-        try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(nomeArquivo))) {
-            out.writeObject(this);
+        gravar(nomeArquivo, false);
+    }
+
+    // Grava o estado no formato binário de SnapshotSimulacao, opcionalmente comprimido
+    public void gravar(String nomeArquivo, boolean comprimir) {
+        try {
+            SnapshotSimulacao.gravar(this, nomeArquivo, comprimir);
             System.out.println("Simulação gravada em: " + nomeArquivo);
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
+    // Carrega um snapshot ou, se o arquivo for um checkpoint incremental, retoma a
+    // simulação no último minuto gravado de forma consistente
     public static Simulador carregar(String nomeArquivo) {
-        try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(nomeArquivo))) {
-            Simulador sim = (Simulador) in.readObject();
-            return sim;
-        } catch (IOException | ClassNotFoundException e) {
+        try {
+            Simulador simulador = RegistroCheckpoint.ehCheckpoint(nomeArquivo)
+                    ? RegistroCheckpoint.recuperar(nomeArquivo)
+                    : SnapshotSimulacao.carregar(nomeArquivo);
+            simulador.publicarEstadoVisual();
+            return simulador;
+        } catch (IOException e) {
             e.printStackTrace();
             return null;
         }
     }
 
+    // Passa a gravar um checkpoint incremental: um snapshot base agora e depois um
+    // registro por minuto, gravados em segundo plano. Substitui um checkpoint anterior.
+    public void iniciarCheckpoint(String nomeArquivo) {
+        encerrarCheckpoint();
+        try {
+            checkpoint = new RegistroCheckpoint(nomeArquivo, this);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Grava os registros pendentes e fecha o arquivo de checkpoint
+    public void encerrarCheckpoint() {
+        if (checkpoint == null) return;
+        try {
+            checkpoint.encerrar();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        checkpoint = null;
+    }
+
+    // Estado no formato de SnapshotSimulacao (a simulação carregada começa pausada)
+    void gravarEstado(DataOutput out) throws IOException {
+        SnapshotSimulacao.escreverInt(out, minutoSimulado);
+        SnapshotSimulacao.escreverInt(out, velocidadeEmMs);
+        SnapshotSimulacao.escreverInt(out, proximoIdPessoa);
+        SnapshotSimulacao.escreverInt(out, heuristicaAtual.ordinal());
+        SnapshotSimulacao.escreverInt(out, modo.ordinal());
+        SnapshotSimulacao.escreverInt(out, pessoasGeradas);
+        SnapshotSimulacao.escreverInt(out, pessoasTransportadas);
+        SnapshotSimulacao.escreverLong(out, sequenciaAgenda);
+        SnapshotSimulacao.escreverInt(out, agenda.size());
+        for (EventoChegada chegada : agenda) {
+            SnapshotSimulacao.escreverInt(out, chegada.getMinuto());
+            SnapshotSimulacao.escreverLong(out, chegada.getSequencia());
+            SnapshotSimulacao.escreverInt(out, chegada.getAndarOrigem());
+            SnapshotSimulacao.escreverInt(out, chegada.getAndarDestino());
+        }
+        predio.gravarEstado(out);
+    }
+
+    void lerEstado(DataInput in) throws IOException {
+        minutoSimulado = SnapshotSimulacao.lerInt(in);
+        velocidadeEmMs = SnapshotSimulacao.lerInt(in);
+        proximoIdPessoa = SnapshotSimulacao.lerInt(in);
+        heuristicaAtual = HeuristicaElevador.values()[SnapshotSimulacao.lerInt(in)];
+        modo = ModoSimulacao.values()[SnapshotSimulacao.lerInt(in)];
+        pessoasGeradas = SnapshotSimulacao.lerInt(in);
+        pessoasTransportadas = SnapshotSimulacao.lerInt(in);
+        sequenciaAgenda = SnapshotSimulacao.lerLong(in);
+        agenda.clear();
+        int quantidade = SnapshotSimulacao.lerInt(in);
+        for (int i = 0; i < quantidade; i++) {
+            int minuto = SnapshotSimulacao.lerInt(in);
+            long sequencia = SnapshotSimulacao.lerLong(in);
+            int origem = SnapshotSimulacao.lerInt(in);
+            int destino = SnapshotSimulacao.lerInt(in);
+            agenda.add(new EventoChegada(minuto, sequencia, origem, destino));
+        }
+        predio.lerEstado(in);
+    }
+
     public int getMinutoSimulado() {
         return minutoSimulado;
     }
@@ -98,12 +480,15 @@ public class Simulador implements Serializable {
         return id;
     }
 
-    public void setVelocidadeEmMs(int velocidadeEmMs) {
+    // Milissegundos entre os minutos simulados; VELOCIDADE_MAXIMA executa sem espera
+    public synchronized void setVelocidadeEmMs(int velocidadeEmMs) {
         this.velocidadeEmMs = velocidadeEmMs;
-        // Se a simulação estiver em execução, reinicie o timer com a nova velocidade
+        // O laço lê a velocidade a cada passo; só o passo já agendado é antecipado ou adiado
         if (emExecucao) {
-            pausar();
-            continuar();
+            proximaExecucao.cancel(false);
+            long agora = System.nanoTime();
+            proximoPassoNs = Math.max(agora, ultimoPassoNs + velocidadeEmMs * 1_000_000L);
+            agendarPasso(agora);
         }
     }
 
@@ -137,6 +522,52 @@ public class Simulador implements Serializable {
         return predio.getPessoasTransportadas();
     }
     
+    // Total de andares percorridos por todos os elevadores (indicador do consumo de energia)
+    public long getAndaresPercorridos() {
+        long total = 0;
+        Lista<Elevador> elevadores = predio.getCentral().getElevadores();
+        for (int i = 0; i < elevadores.getTamanho(); i++) {
+            total += elevadores.get(i).getAndaresPercorridos();
+        }
+        return total;
+    }
+    
+    // Percentis entre 0 e 100 (ex.: 95 para o p95)
+    public int getPercentilEspera(double percentil) {
+        return predio.getTemposEspera().getPercentil(percentil);
+    }
+    
+    public int getPercentilViagem(double percentil) {
+        return predio.getTemposViagem().getPercentil(percentil);
+    }
+    
+    public int getPercentilTotal(double percentil) {
+        return predio.getTemposTotal().getPercentil(percentil);
+    }
+    
+    // Registra um ouvinte para os eventos de todos os elevadores (null para desativar)
+    public void setOuvinteElevador(OuvinteElevador ouvinte) {
+        predio.getCentral().setOuvinte(ouvinte);
+    }
+    
+    // Move os elevadores em paralelo a cada minuto, com o mesmo resultado da atualização
+    // sequencial. Compensa só em grupos grandes e fica desligado enquanto houver ouvinte.
+    public void setAtualizacaoParalela(boolean paralela) {
+        predio.getCentral().setAtualizacaoParalela(paralela);
+    }
+    
+    public boolean isAtualizacaoParalela() {
+        return predio.getCentral().isAtualizacaoParalela();
+    }
+    
+    public ModoSimulacao getModo() {
+        return modo;
+    }
+    
+    public void setModo(ModoSimulacao modo) {
+        this.modo = modo;
+    }
+    
     public HeuristicaElevador getHeuristicaAtual() {
         return heuristicaAtual;
     }
@@ -144,5 +575,6 @@ public class Simulador implements Serializable {
     public void setHeuristicaAtual(HeuristicaElevador heuristica) {
         this.heuristicaAtual = heuristica;
         this.predio.setHeuristicaAtual(heuristica);
+        if (checkpoint != null) checkpoint.heuristica(heuristica);
     }
 }
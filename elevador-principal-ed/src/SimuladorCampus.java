@@ -0,0 +1,259 @@
+import java.text.DecimalFormat;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.Phaser;
+import java.util.function.Function;
+
+/**
+ * Simulação de um campus com vários prédios, cada um com o seu Simulador. Os prédios são
+ * repartidos entre grupos (no máximo um por núcleo) e cada grupo avança os seus prédios em
+ * uma thread própria. Uma barreira (Phaser) ao fim de cada minuto simulado mantém todos os
+ * prédios no mesmo minuto, e a ação por minuto (se houver) roda com o campus parado nesse
+ * ponto. Uma falha em qualquer grupo encerra a barreira e todos os grupos param.
+ * Os prédios não interagem, então cada um termina exatamente como em uma execução isolada.
+ *
+ * Uso: java SimuladorCampus [predios] [andares] [elevadores] [capacidade] [minutos]
+ *      [pessoasPorMinuto] [heuristica] [semente]
+ * A heurística é o número do modelo (1 a 4) ou o nome, como em SimulacaoLote.
+ * Cada prédio recebe tráfego próprio, sorteado com semente + número do prédio.
+ */
+public class SimuladorCampus {
+    private final Lista<Simulador> predios;
+    private final int maximoGrupos;
+    private volatile int minutoSimulado;
+    private Runnable acaoPorMinuto;
+
+    public SimuladorCampus() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public SimuladorCampus(int maximoGrupos) {
+        this.predios = new Lista<>();
+        this.maximoGrupos = Math.max(1, maximoGrupos);
+    }
+
+    // O prédio deve estar no mesmo minuto que o campus e não pode estar em execução pelo laço em tempo real
+    public void adicionarPredio(Simulador simulador) {
+        if (simulador.getMinutoSimulado() != minutoSimulado) {
+            throw new IllegalArgumentException("O prédio está no minuto " + simulador.getMinutoSimulado()
+                                               + " e o campus no minuto " + minutoSimulado);
+        }
+        predios.inserirFim(simulador);
+    }
+
+    // Executada uma vez por minuto, depois que todos os prédios concluíram o minuto
+    public void setAcaoPorMinuto(Runnable acao) {
+        this.acaoPorMinuto = acao;
+    }
+
+    // Avança todos os prédios até minutoFinal (exclusivo)
+    public void executarAte(int minutoFinal) throws InterruptedException {
+        int minutos = minutoFinal - minutoSimulado;
+        if (minutos <= 0 || predios.estaVazia()) return;
+
+        Simulador[][] grupos = repartir(Math.min(maximoGrupos, predios.getTamanho()));
+        Throwable[] erro = new Throwable[1];
+        // Uma fase por minuto. A falha de um grupo encerra o phaser: quem espera é liberado na
+        // hora e quem ainda está no meio do minuto não espera mais ao chegar ao fim dele
+        Phaser fimDoMinuto = new Phaser(grupos.length) {
+            @Override
+            protected boolean onAdvance(int fase, int participantes) {
+                minutoSimulado++;
+                if (acaoPorMinuto != null) {
+                    try {
+                        acaoPorMinuto.run();
+                    } catch (RuntimeException | Error e) {
+                        registrarErro(erro, e);
+                        return true;
+                    }
+                }
+                return false;
+            }
+        };
+
+        Thread[] threads = new Thread[grupos.length];
+        for (int g = 0; g < grupos.length; g++) {
+            Simulador[] grupo = grupos[g];
+            threads[g] = new Thread(() -> {
+                try {
+                    for (int m = 0; m < minutos && !fimDoMinuto.isTerminated(); m++) {
+                        for (Simulador simulador : grupo) {
+                            simulador.passo();
+                        }
+                        fimDoMinuto.arriveAndAwaitAdvance();
+                    }
+                } catch (RuntimeException | Error e) {
+                    registrarErro(erro, e);
+                    fimDoMinuto.forceTermination();
+                }
+                for (Simulador simulador : grupo) {
+                    simulador.publicarEstadoVisual();
+                }
+            }, "campus-" + g);
+            threads[g].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (erro[0] != null) {
+            throw new IllegalStateException("Falha na simulação do campus no minuto " + minutoSimulado, erro[0]);
+        }
+    }
+
+    private static void registrarErro(Throwable[] erro, Throwable e) {
+        synchronized (erro) {
+            if (erro[0] == null) erro[0] = e;
+        }
+    }
+
+    // Distribui os prédios entre os grupos, do maior para o menor, sempre para o grupo
+    // com menos carga (andares x elevadores como estimativa do custo de um minuto)
+    private Simulador[][] repartir(int quantidadeGrupos) {
+        int total = predios.getTamanho();
+        Integer[] ordem = new Integer[total];
+        for (int i = 0; i < total; i++) {
+            ordem[i] = i;
+        }
+        Arrays.sort(ordem, (a, b) -> Long.compare(custo(predios.get(b)), custo(predios.get(a))));
+
+        long[] carga = new long[quantidadeGrupos];
+        int[] grupoDoPredio = new int[total];
+        int[] tamanhoGrupo = new int[quantidadeGrupos];
+        for (int indice : ordem) {
+            int menor = 0;
+            for (int g = 1; g < quantidadeGrupos; g++) {
+                if (carga[g] < carga[menor]) menor = g;
+            }
+            carga[menor] += custo(predios.get(indice));
+            grupoDoPredio[indice] = menor;
+            tamanhoGrupo[menor]++;
+        }
+
+        // Dentro de cada grupo os prédios ficam na ordem em que foram adicionados
+        Simulador[][] grupos = new Simulador[quantidadeGrupos][];
+        for (int g = 0; g < quantidadeGrupos; g++) {
+            grupos[g] = new Simulador[tamanhoGrupo[g]];
+            tamanhoGrupo[g] = 0;
+        }
+        for (int i = 0; i < total; i++) {
+            int g = grupoDoPredio[i];
+            grupos[g][tamanhoGrupo[g]++] = predios.get(i);
+        }
+        return grupos;
+    }
+
+    private static long custo(Simulador simulador) {
+        Predio predio = simulador.getPredio();
+        return (long) predio.getQuantidadeAndares() * Math.max(1, predio.getCentral().getElevadores().getTamanho());
+    }
+
+    public int getMinutoSimulado() {
+        return minutoSimulado;
+    }
+
+    public int getQuantidadePredios() {
+        return predios.getTamanho();
+    }
+
+    public Simulador getPredio(int indice) {
+        return predios.get(indice);
+    }
+
+    // Estatísticas agregadas do campus (ler com a simulação parada ou na ação por minuto)
+    public int getPessoasGeradas() {
+        int total = 0;
+        for (int i = 0; i < predios.getTamanho(); i++) {
+            total += predios.get(i).getPessoasGeradas();
+        }
+        return total;
+    }
+
+    public int getPessoasTransportadas() {
+        int total = 0;
+        for (int i = 0; i < predios.getTamanho(); i++) {
+            total += predios.get(i).getPessoasTransportadas();
+        }
+        return total;
+    }
+
+    public long getAndaresPercorridos() {
+        long total = 0;
+        for (int i = 0; i < predios.getTamanho(); i++) {
+            total += predios.get(i).getAndaresPercorridos();
+        }
+        return total;
+    }
+
+    public EstatisticaTempos getTemposEspera() {
+        return mesclarTempos(Predio::getTemposEspera);
+    }
+
+    public EstatisticaTempos getTemposViagem() {
+        return mesclarTempos(Predio::getTemposViagem);
+    }
+
+    public EstatisticaTempos getTemposTotal() {
+        return mesclarTempos(Predio::getTemposTotal);
+    }
+
+    private EstatisticaTempos mesclarTempos(Function<Predio, EstatisticaTempos> tempos) {
+        EstatisticaTempos campus = new EstatisticaTempos();
+        for (int i = 0; i < predios.getTamanho(); i++) {
+            campus.mesclar(tempos.apply(predios.get(i).getPredio()));
+        }
+        return campus;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int quantidadePredios, andares, elevadores, capacidade, minutos;
+        double pessoasPorMinuto;
+        HeuristicaElevador heuristica;
+        long semente;
+        try {
+            quantidadePredios = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+            andares = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+            elevadores = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+            capacidade = args.length > 3 ? Integer.parseInt(args[3]) : 8;
+            minutos = args.length > 4 ? Integer.parseInt(args[4]) : 1440;
+            pessoasPorMinuto = args.length > 5 ? Double.parseDouble(args[5]) : 0.5;
+            heuristica = args.length > 6 ? HeuristicaElevador.ler(args[6]) : HeuristicaElevador.SEM_HEURISTICA;
+            semente = args.length > 7 ? Long.parseLong(args[7]) : 42;
+        } catch (IllegalArgumentException e) {
+            // Inclui NumberFormatException dos argumentos numéricos
+            System.out.println(e.getMessage());
+            System.out.println("Uso: java SimuladorCampus [predios] [andares] [elevadores] [capacidade] [minutos]"
+                               + " [pessoasPorMinuto] [heuristica] [semente]");
+            return;
+        }
+
+        SimuladorCampus campus = new SimuladorCampus();
+        for (int i = 0; i < quantidadePredios; i++) {
+            Simulador simulador = new Simulador(andares, elevadores, 0, capacidade);
+            simulador.setHeuristicaAtual(heuristica);
+            simulador.agendarChegadasAleatorias(0, minutos, pessoasPorMinuto, new Random(semente + i));
+            campus.adicionarPredio(simulador);
+        }
+
+        long inicio = System.nanoTime();
+        campus.executarAte(minutos);
+        long duracaoMs = (System.nanoTime() - inicio) / 1_000_000;
+
+        DecimalFormat df = new DecimalFormat("#.##");
+        EstatisticaTempos espera = campus.getTemposEspera();
+        EstatisticaTempos total = campus.getTemposTotal();
+        System.out.println("Campus: " + quantidadePredios + " prédios de " + andares + " andares e "
+                           + elevadores + " elevadores | Heurística: " + heuristica);
+        System.out.println("Minutos simulados: " + campus.getMinutoSimulado() + " (" + duracaoMs + " ms, "
+                           + Math.min(Runtime.getRuntime().availableProcessors(), quantidadePredios) + " threads)");
+        System.out.println("Pessoas geradas: " + campus.getPessoasGeradas());
+        System.out.println("Pessoas transportadas: " + campus.getPessoasTransportadas());
+        System.out.println("Tempo médio de espera: " + df.format(espera.getMedia()) + " min");
+        System.out.println("Tempo médio de viagem: " + df.format(campus.getTemposViagem().getMedia()) + " min");
+        System.out.println("Tempo médio total: " + df.format(total.getMedia()) + " min");
+        System.out.println("Espera p50/p95/p99: " + espera.getPercentil(50) + " / " + espera.getPercentil(95)
+                           + " / " + espera.getPercentil(99) + " min");
+        System.out.println("Total p50/p95/p99: " + total.getPercentil(50) + " / " + total.getPercentil(95)
+                           + " / " + total.getPercentil(99) + " min");
+        System.out.println("Andares percorridos: " + campus.getAndaresPercorridos());
+    }
+}
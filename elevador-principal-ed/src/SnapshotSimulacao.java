@@ -0,0 +1,223 @@
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Formato binário compacto e versionado para gravar e carregar o estado de um Simulador
+ * (prédio, elevadores, andares, filas e pessoas). Os inteiros são gravados como varints
+ * (zigzag), e cada classe grava e lê o próprio estado (gravarEstado/lerEstado), de modo
+ * que mudanças internas nas classes não invalidam o formato enquanto a versão for a mesma.
+ *
+ * Cabeçalho: número mágico "ELEV", versão e flags (bit 0 = conteúdo comprimido com GZIP).
+ */
+public class SnapshotSimulacao {
+    public static final int NUMERO_MAGICO = 0x454C4556; // "ELEV"
+    public static final int VERSAO = 2; // 2: registro de chamadas no lugar da lista do FCFS
+    private static final int FLAG_COMPRIMIDO = 1;
+    private static final int TAMANHO_BUFFER = 1 << 16;
+
+    public static void gravar(Simulador simulador, String nomeArquivo, boolean comprimir) throws IOException {
+        try (FileChannel canal = FileChannel.open(Paths.get(nomeArquivo), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            gravar(simulador, Channels.newOutputStream(canal), comprimir);
+        }
+    }
+
+    public static Simulador carregar(String nomeArquivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(Paths.get(nomeArquivo), StandardOpenOption.READ)) {
+            return carregar(Channels.newInputStream(canal));
+        }
+    }
+
+    // Grava cabeçalho e estado na saída; não fecha a saída original
+    public static void gravar(Simulador simulador, OutputStream saida, boolean comprimir) throws IOException {
+        DataOutputStream cabecalho = new DataOutputStream(saida);
+        cabecalho.writeInt(NUMERO_MAGICO);
+        cabecalho.writeShort(VERSAO);
+        cabecalho.writeByte(comprimir ? FLAG_COMPRIMIDO : 0);
+
+        // O buffer fica acima do GZIP para que o compressor receba blocos, e não bytes isolados
+        OutputStream corpo = comprimir ? new GzipRapido(new SaidaBuffer(saida, false)) : saida;
+        try (DataOutputStream out = new DataOutputStream(new SaidaBuffer(corpo, comprimir))) {
+            Predio predio = simulador.getPredio();
+            Lista<Elevador> elevadores = predio.getCentral().getElevadores();
+            escreverInt(out, predio.getQuantidadeAndares());
+            escreverInt(out, elevadores.getTamanho());
+            escreverInt(out, elevadores.estaVazia() ? 0 : elevadores.get(0).getCapacidadeMaxima());
+            simulador.gravarEstado(out);
+        }
+    }
+
+    public static Simulador carregar(InputStream entrada) throws IOException {
+        DataInputStream cabecalho = new DataInputStream(entrada);
+        if (cabecalho.readInt() != NUMERO_MAGICO) {
+            throw new IOException("Arquivo não é um snapshot do simulador");
+        }
+        int versao = cabecalho.readUnsignedShort();
+        if (versao != VERSAO) {
+            throw new IOException("Versão de snapshot não suportada: " + versao);
+        }
+        int flags = cabecalho.readUnsignedByte();
+
+        InputStream corpo = (flags & FLAG_COMPRIMIDO) != 0 ? new GZIPInputStream(entrada, TAMANHO_BUFFER) : entrada;
+        DataInputStream in = new DataInputStream(new EntradaBuffer(corpo));
+        int andares = lerInt(in);
+        int elevadores = lerInt(in);
+        int capacidade = lerInt(in);
+        Simulador simulador = new Simulador(andares, elevadores, 0, capacidade);
+        simulador.lerEstado(in);
+        return simulador;
+    }
+
+    // Inteiro com sinal em varint zigzag: valores pequenos (positivos ou negativos) ocupam 1 byte
+    public static void escreverInt(DataOutput out, int valor) throws IOException {
+        int v = (valor << 1) ^ (valor >> 31);
+        while ((v & ~0x7F) != 0) {
+            out.writeByte((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.writeByte(v);
+    }
+
+    public static int lerInt(DataInput in) throws IOException {
+        int v = 0;
+        int deslocamento = 0;
+        int b;
+        do {
+            b = in.readUnsignedByte();
+            v |= (b & 0x7F) << deslocamento;
+            deslocamento += 7;
+        } while ((b & 0x80) != 0);
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    public static void escreverLong(DataOutput out, long valor) throws IOException {
+        long v = (valor << 1) ^ (valor >> 63);
+        while ((v & ~0x7FL) != 0) {
+            out.writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+
+    public static long lerLong(DataInput in) throws IOException {
+        long v = 0;
+        int deslocamento = 0;
+        int b;
+        do {
+            b = in.readUnsignedByte();
+            v |= (long) (b & 0x7F) << deslocamento;
+            deslocamento += 7;
+        } while ((b & 0x80) != 0);
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    // GZIP com o nível de compressão mais rápido: os varints já são compactos
+    private static class GzipRapido extends GZIPOutputStream {
+        GzipRapido(OutputStream saida) throws IOException {
+            super(saida, TAMANHO_BUFFER);
+            def.setLevel(Deflater.BEST_SPEED);
+        }
+    }
+
+    // Buffer de saída sem sincronização (os varints são escritos byte a byte); só fecha a
+    // saída original se pedido, para não fechar o fluxo de quem chamou
+    private static class SaidaBuffer extends OutputStream {
+        private final OutputStream saida;
+        private final boolean fecharSaida;
+        private final byte[] buffer = new byte[TAMANHO_BUFFER];
+        private int posicao;
+
+        SaidaBuffer(OutputStream saida, boolean fecharSaida) {
+            this.saida = saida;
+            this.fecharSaida = fecharSaida;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (posicao == buffer.length) {
+                esvaziar();
+            }
+            buffer[posicao++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int inicio, int tamanho) throws IOException {
+            if (tamanho > buffer.length - posicao) {
+                esvaziar();
+                if (tamanho > buffer.length) {
+                    saida.write(b, inicio, tamanho);
+                    return;
+                }
+            }
+            System.arraycopy(b, inicio, buffer, posicao, tamanho);
+            posicao += tamanho;
+        }
+
+        private void esvaziar() throws IOException {
+            saida.write(buffer, 0, posicao);
+            posicao = 0;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            esvaziar();
+            saida.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+            if (fecharSaida) {
+                saida.close();
+            }
+        }
+    }
+
+    // Buffer de entrada sem sincronização; não fecha a entrada original
+    private static class EntradaBuffer extends InputStream {
+        private final InputStream entrada;
+        private final byte[] buffer = new byte[TAMANHO_BUFFER];
+        private int posicao;
+        private int limite;
+
+        EntradaBuffer(InputStream entrada) {
+            this.entrada = entrada;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (posicao == limite && !encher()) return -1;
+            return buffer[posicao++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int inicio, int tamanho) throws IOException {
+            if (tamanho == 0) return 0;
+            if (posicao == limite && !encher()) return -1;
+            int lidos = Math.min(tamanho, limite - posicao);
+            System.arraycopy(buffer, posicao, b, inicio, lidos);
+            posicao += lidos;
+            return lidos;
+        }
+
+        private boolean encher() throws IOException {
+            int lidos = entrada.read(buffer, 0, buffer.length);
+            if (lidos <= 0) return false;
+            posicao = 0;
+            limite = lidos;
+            return true;
+        }
+    }
+}